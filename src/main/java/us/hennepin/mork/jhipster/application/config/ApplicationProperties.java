@@ -2,6 +2,10 @@ package us.hennepin.mork.jhipster.application.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Properties specific to Jhipster Document Application.
  * <p>
@@ -11,4 +15,549 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
 
+    private final Storage storage = new Storage();
+
+    private final TextExtraction textExtraction = new TextExtraction();
+
+    private final Rendition rendition = new Rendition();
+
+    public Storage getStorage() {
+        return storage;
+    }
+
+    public TextExtraction getTextExtraction() {
+        return textExtraction;
+    }
+
+    public Rendition getRendition() {
+        return rendition;
+    }
+
+    public static class Storage {
+
+        /**
+         * Name of the content store new payloads are written to, "jpa" or "filesystem".
+         */
+        private String type = "jpa";
+
+        private final FileSystem fileSystem = new FileSystem();
+
+        private final Pack pack = new Pack();
+
+        private final Migration migration = new Migration();
+
+        private final Compression compression = new Compression();
+
+        private final Upload upload = new Upload();
+
+        private final Cache cache = new Cache();
+
+        private final GarbageCollection garbageCollection = new GarbageCollection();
+
+        private final Tiering tiering = new Tiering();
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public FileSystem getFileSystem() {
+            return fileSystem;
+        }
+
+        public Pack getPack() {
+            return pack;
+        }
+
+        public Migration getMigration() {
+            return migration;
+        }
+
+        public Compression getCompression() {
+            return compression;
+        }
+
+        public Upload getUpload() {
+            return upload;
+        }
+
+        public Cache getCache() {
+            return cache;
+        }
+
+        public GarbageCollection getGarbageCollection() {
+            return garbageCollection;
+        }
+
+        public Tiering getTiering() {
+            return tiering;
+        }
+
+        public static class FileSystem {
+
+            private String root = "target/content-store";
+
+            public String getRoot() {
+                return root;
+            }
+
+            public void setRoot(String root) {
+                this.root = root;
+            }
+        }
+
+        public static class Pack {
+
+            /**
+             * Appends the small payloads to pack files rather than writing them to storage.type.
+             */
+            private boolean enabled = false;
+
+            private String directory = "target/content-packs";
+
+            /**
+             * Payloads up to this size, in bytes, are written to pack files.
+             */
+            private long maxObjectSize = 20 * 1024;
+
+            /**
+             * A new pack file is started once the current one reaches this size, in bytes.
+             */
+            private long maxPackSize = 64 * 1024 * 1024;
+
+            /**
+             * Pack files whose share of deleted payloads is above this ratio are compacted.
+             */
+            private double compactionThreshold = 0.5;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public String getDirectory() {
+                return directory;
+            }
+
+            public void setDirectory(String directory) {
+                this.directory = directory;
+            }
+
+            public long getMaxObjectSize() {
+                return maxObjectSize;
+            }
+
+            public void setMaxObjectSize(long maxObjectSize) {
+                this.maxObjectSize = maxObjectSize;
+            }
+
+            public long getMaxPackSize() {
+                return maxPackSize;
+            }
+
+            public void setMaxPackSize(long maxPackSize) {
+                this.maxPackSize = maxPackSize;
+            }
+
+            public double getCompactionThreshold() {
+                return compactionThreshold;
+            }
+
+            public void setCompactionThreshold(double compactionThreshold) {
+                this.compactionThreshold = compactionThreshold;
+            }
+        }
+
+        public static class Migration {
+
+            /**
+             * Move the payloads stored elsewhere to the store configured by {@code type}.
+             */
+            private boolean enabled = false;
+
+            private int batchSize = 50;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+        }
+
+        public static class Compression {
+
+            private boolean enabled = false;
+
+            /**
+             * Deflate level, from 1 (fastest) to 9 (smallest).
+             */
+            private int level = 6;
+
+            /**
+             * Payloads smaller than this are not worth compressing.
+             */
+            private long minSize = 1024;
+
+            /**
+             * MIME types that are compressed, "type/*" matches a whole type. Already compressed formats
+             * (JPEG, PNG, ZIP, DOCX, video...) should not be listed.
+             */
+            private List<String> mimeTypes = new ArrayList<>(Arrays.asList(
+                "text/*", "application/pdf", "image/tiff", "image/bmp", "application/json", "application/xml",
+                "application/msword", "application/rtf"));
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getLevel() {
+                return level;
+            }
+
+            public void setLevel(int level) {
+                this.level = level;
+            }
+
+            public long getMinSize() {
+                return minSize;
+            }
+
+            public void setMinSize(long minSize) {
+                this.minSize = minSize;
+            }
+
+            public List<String> getMimeTypes() {
+                return mimeTypes;
+            }
+
+            public void setMimeTypes(List<String> mimeTypes) {
+                this.mimeTypes = mimeTypes;
+            }
+        }
+
+        public static class Upload {
+
+            /**
+             * Directory where the chunks of resumable uploads are assembled.
+             */
+            private String directory = "target/uploads";
+
+            /**
+             * Resumable uploads not completed after this many hours are discarded.
+             */
+            private int expirationHours = 24;
+
+            /**
+             * Number of files of a multi-file upload prepared in parallel, 0 to use the number of processors.
+             */
+            private int threads = 0;
+
+            /**
+             * Number of files waiting for a thread, beyond which the uploading request prepares them itself.
+             */
+            private int queueCapacity = 100;
+
+            public String getDirectory() {
+                return directory;
+            }
+
+            public void setDirectory(String directory) {
+                this.directory = directory;
+            }
+
+            public int getExpirationHours() {
+                return expirationHours;
+            }
+
+            public void setExpirationHours(int expirationHours) {
+                this.expirationHours = expirationHours;
+            }
+
+            public int getThreads() {
+                return threads;
+            }
+
+            public void setThreads(int threads) {
+                this.threads = threads;
+            }
+
+            public int getQueueCapacity() {
+                return queueCapacity;
+            }
+
+            public void setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+            }
+        }
+
+        public static class Cache {
+
+            /**
+             * Caches the payloads read back from the stores, in a cache bounded by bytes rather than entries.
+             */
+            private boolean enabled = true;
+
+            /**
+             * Size of the heap tier of the cache, in megabytes.
+             */
+            private long heapSize = 16;
+
+            /**
+             * Size of the off-heap tier of the cache, in megabytes, it must be larger than the heap tier.
+             */
+            private long offHeapSize = 128;
+
+            /**
+             * Payloads larger than this, in bytes, are never cached.
+             */
+            private long maxObjectSize = 512 * 1024;
+
+            private long timeToLiveSeconds = 3600;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public long getHeapSize() {
+                return heapSize;
+            }
+
+            public void setHeapSize(long heapSize) {
+                this.heapSize = heapSize;
+            }
+
+            public long getOffHeapSize() {
+                return offHeapSize;
+            }
+
+            public void setOffHeapSize(long offHeapSize) {
+                this.offHeapSize = offHeapSize;
+            }
+
+            public long getMaxObjectSize() {
+                return maxObjectSize;
+            }
+
+            public void setMaxObjectSize(long maxObjectSize) {
+                this.maxObjectSize = maxObjectSize;
+            }
+
+            public long getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(long timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+        }
+
+        public static class GarbageCollection {
+
+            /**
+             * Deletes the contents no document references anymore.
+             */
+            private boolean enabled = true;
+
+            private int batchSize = 100;
+
+            /**
+             * Pause between two batches, in milliseconds, to leave the database to the users.
+             */
+            private long pause = 200;
+
+            /**
+             * Contents stored less than this many minutes ago are kept, their documents may not be committed yet.
+             */
+            private long graceMinutes = 60;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+
+            public long getPause() {
+                return pause;
+            }
+
+            public void setPause(long pause) {
+                this.pause = pause;
+            }
+
+            public long getGraceMinutes() {
+                return graceMinutes;
+            }
+
+            public void setGraceMinutes(long graceMinutes) {
+                this.graceMinutes = graceMinutes;
+            }
+        }
+
+        public static class Tiering {
+
+            /**
+             * Moves the payloads of idle documents to the cold tier, in tiering.root.
+             */
+            private boolean enabled = false;
+
+            private String root = "target/content-cold";
+
+            /**
+             * Documents neither read nor modified for this number of days are idle.
+             */
+            private int idleDays = 365;
+
+            private int batchSize = 50;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public String getRoot() {
+                return root;
+            }
+
+            public void setRoot(String root) {
+                this.root = root;
+            }
+
+            public int getIdleDays() {
+                return idleDays;
+            }
+
+            public void setIdleDays(int idleDays) {
+                this.idleDays = idleDays;
+            }
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+        }
+    }
+
+    public static class TextExtraction {
+
+        /**
+         * Extracts the text of the stored payloads in the background, and indexes it with their documents.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Payloads larger than this, in bytes, are not read.
+         */
+        private long maxSize = 50 * 1024 * 1024;
+
+        /**
+         * Maximum number of characters extracted from a payload.
+         */
+        private int maxLength = 1000000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public int getMaxLength() {
+            return maxLength;
+        }
+
+        public void setMaxLength(int maxLength) {
+            this.maxLength = maxLength;
+        }
+    }
+
+    public static class Rendition {
+
+        /**
+         * Renders the thumbnails of the stored image and PDF payloads in the background.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum width and height of the thumbnails, in pixels.
+         */
+        private int size = 256;
+
+        /**
+         * Payloads larger than this, in bytes, get no thumbnail.
+         */
+        private long maxSize = 50 * 1024 * 1024;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public void setSize(int size) {
+            this.size = size;
+        }
+
+        public long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(long maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
 }
@@ -3,6 +3,7 @@ package us.hennepin.mork.jhipster.application.config;
 import java.time.Duration;
 
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.MemoryUnit;
 import org.ehcache.jsr107.Eh107Configuration;
 
 import io.github.jhipster.config.jcache.BeanClassLoaderAwareJCacheRegionFactory;
@@ -18,7 +19,11 @@ public class CacheConfiguration {
 
     private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
+    private final javax.cache.configuration.Configuration<Object, Object> contentBlobsConfiguration;
+
+    private final boolean contentBlobsEnabled;
+
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
         BeanClassLoaderAwareJCacheRegionFactory.setBeanClassLoader(this.getClass().getClassLoader());
         JHipsterProperties.Cache.Ehcache ehcache =
             jHipsterProperties.getCache().getEhcache();
@@ -28,6 +33,18 @@ public class CacheConfiguration {
                 ResourcePoolsBuilder.heap(ehcache.getMaxEntries()))
                 .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
                 .build());
+
+        // Payloads are bounded by their size in bytes, not by their number, and overflow to an off-heap tier
+        ApplicationProperties.Storage.Cache blobs = applicationProperties.getStorage().getCache();
+        contentBlobsEnabled = blobs.isEnabled();
+        contentBlobsConfiguration = Eh107Configuration.fromEhcacheCacheConfiguration(
+            CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
+                ResourcePoolsBuilder.newResourcePoolsBuilder()
+                    .heap(blobs.getHeapSize(), MemoryUnit.MB)
+                    .offheap(blobs.getOffHeapSize(), MemoryUnit.MB))
+                .withSizeOfMaxObjectSize(blobs.getMaxObjectSize(), MemoryUnit.B)
+                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(blobs.getTimeToLiveSeconds())))
+                .build());
     }
 
     @Bean
@@ -41,7 +58,9 @@ public class CacheConfiguration {
             cm.createCache(us.hennepin.mork.jhipster.application.domain.Person.class.getName(), jcacheConfiguration);
             cm.createCache(us.hennepin.mork.jhipster.application.domain.Person.class.getName() + ".documents", jcacheConfiguration);
             cm.createCache(us.hennepin.mork.jhipster.application.domain.Document.class.getName(), jcacheConfiguration);
-            cm.createCache(us.hennepin.mork.jhipster.application.domain.Content.class.getName(), jcacheConfiguration);
+            if (contentBlobsEnabled) {
+                cm.createCache(us.hennepin.mork.jhipster.application.service.store.ContentBlobCache.CONTENT_BLOBS_CACHE, contentBlobsConfiguration);
+            }
             // jhipster-needle-ehcache-add-entry
         };
     }
@@ -1,11 +1,15 @@
 package us.hennepin.mork.jhipster.application.config;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.github.vanroy.springdata.jest.JestElasticsearchTemplate;
 import com.github.vanroy.springdata.jest.mapper.DefaultJestResultsMapper;
 import io.searchbox.client.JestClient;
+import us.hennepin.mork.jhipster.application.domain.Content;
+import us.hennepin.mork.jhipster.application.domain.Document;
 import org.springframework.boot.autoconfigure.data.elasticsearch.ElasticsearchProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -50,12 +54,15 @@ public class ElasticsearchConfiguration {
         private ObjectMapper objectMapper;
 
         public CustomEntityMapper(ObjectMapper objectMapper) {
-            this.objectMapper = objectMapper;
             objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
             objectMapper.configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true);
             objectMapper.configure(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS, true);
             objectMapper.configure(SerializationFeature.INDENT_OUTPUT, false);
             objectMapper.configure(DeserializationFeature.READ_DATE_TIMESTAMPS_AS_NANOSECONDS, true);
+            // the indexed representations differ from the REST ones, see the mix-ins below
+            this.objectMapper = objectMapper.copy()
+                .addMixIn(Content.class, ContentSearchMixIn.class)
+                .addMixIn(Document.class, DocumentSearchMixIn.class);
         }
 
         @Override
@@ -69,4 +76,21 @@ public class ElasticsearchConfiguration {
         }
     }
 
+    /**
+     * Payloads are never indexed, their text is indexed with their documents instead.
+     */
+    abstract static class ContentSearchMixIn {
+
+        @JsonIgnore
+        abstract byte[] getData();
+    }
+
+    /**
+     * The text of the content of a document is indexed, but is not part of its REST representation.
+     */
+    abstract static class DocumentSearchMixIn {
+
+        @JsonProperty
+        abstract String getText();
+    }
 }
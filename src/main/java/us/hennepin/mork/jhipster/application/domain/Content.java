@@ -2,42 +2,99 @@ package us.hennepin.mork.jhipster.application.domain;
 
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import org.hibernate.annotations.Cache;
-import org.hibernate.annotations.CacheConcurrencyStrategy;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import javax.persistence.*;
 import javax.validation.constraints.*;
 
 import org.springframework.data.elasticsearch.annotations.Document;
 import java.io.Serializable;
+import java.sql.Blob;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.HashSet;
 import java.util.Objects;
+import java.util.Set;
+
+import org.hibernate.engine.jdbc.BlobProxy;
 
 /**
  * A Content.
+ * <p>
+ * Contents are addressed by the SHA-256 checksum of their payload: identical payloads are stored once
+ * and shared by all the documents referencing them.
+ * <p>
+ * Contents are deliberately not in the Hibernate second level cache, whose regions are bounded by entry count:
+ * their payloads are cached by {@link us.hennepin.mork.jhipster.application.service.store.ContentBlobCache} instead.
  */
 @Entity
 @Table(name = "content")
-@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 @Document(indexName = "content")
 public class Content implements Serializable {
 
     private static final long serialVersionUID = 1L;
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "contentGenerator")
+    @TableGenerator(name = "contentGenerator", table = "id_generator", pkColumnName = "sequence_name", valueColumnName = "next_val",
+        pkColumnValue = "content", allocationSize = 50)
     private Long id;
 
-    
+    /**
+     * The payload when it is kept in the database, mapped as a {@link Blob} so that it can be bound from and read back as a stream.
+     */
     @Lob
-    @Column(name = "data", nullable = false)
-    private byte[] data;
+    @Column(name = "data")
+    @JsonIgnore
+    private Blob blob;
 
     @Column(name = "data_content_type", nullable = false)
     private String dataContentType;
 
-    @OneToOne(mappedBy = "content")
+    @Column(name = "checksum", length = 64, unique = true)
+    private String checksum;
+
+    @Column(name = "jhi_size")
+    private Long size;
+
+    /**
+     * Encoding of the stored payload, null when it is stored as uploaded.
+     */
+    @Column(name = "encoding", length = 20)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String encoding;
+
+    /**
+     * Number of bytes actually stored, which differs from the size when the payload is encoded.
+     */
+    @Column(name = "stored_size")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long storedSize;
+
+    /**
+     * Name of the content store holding the payload, null for the payloads stored before stores existed.
+     */
+    @Column(name = "store", length = 20)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String store;
+
+    /**
+     * Location of the payload inside its store, when the store does not keep it in this row.
+     */
+    @Column(name = "location")
+    @JsonIgnore
+    private String location;
+
+    /**
+     * When the content was stored, younger contents are kept by the garbage collection even without documents.
+     */
+    @Column(name = "created_date", updatable = false)
     @JsonIgnore
-    private Document document;
+    private Instant createdDate = Instant.now();
+
+    @OneToMany(mappedBy = "content")
+    @JsonIgnore
+    private Set<Document> documents = new HashSet<>();
 
     // jhipster-needle-entity-add-field - JHipster will add fields here, do not remove
     public Long getId() {
@@ -48,17 +105,50 @@ public class Content implements Serializable {
         this.id = id;
     }
 
+    public Blob getBlob() {
+        return blob;
+    }
+
+    public Content blob(Blob blob) {
+        this.blob = blob;
+        return this;
+    }
+
+    public void setBlob(Blob blob) {
+        this.blob = blob;
+    }
+
+    /**
+     * Materializes the whole payload as stored in the database, only meant for small payloads, streaming callers
+     * should go through {@link us.hennepin.mork.jhipster.application.service.ContentService}, which also decodes
+     * the payloads stored encoded and reads the ones kept in other stores.
+     */
     public byte[] getData() {
-        return data;
+        if (blob == null) {
+            return null;
+        }
+        try {
+            return blob.getBytes(1, (int) blob.length());
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read content " + id, e);
+        }
     }
 
     public Content data(byte[] data) {
-        this.data = data;
+        setData(data);
         return this;
     }
 
+    /**
+     * Keeps the payload as is in the database, whatever the store and encoding of the previous one.
+     */
     public void setData(byte[] data) {
-        this.data = data;
+        this.blob = data == null ? null : BlobProxy.generateProxy(data);
+        this.size = data == null ? null : (long) data.length;
+        this.storedSize = this.size;
+        this.encoding = null;
+        this.store = null;
+        this.location = null;
     }
 
     public String getDataContentType() {
@@ -74,17 +164,115 @@ public class Content implements Serializable {
         this.dataContentType = dataContentType;
     }
 
-    public Document getDocument() {
-        return document;
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public Content checksum(String checksum) {
+        this.checksum = checksum;
+        return this;
+    }
+
+    public void setChecksum(String checksum) {
+        this.checksum = checksum;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public Content size(Long size) {
+        this.size = size;
+        return this;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    public Content encoding(String encoding) {
+        this.encoding = encoding;
+        return this;
+    }
+
+    public void setEncoding(String encoding) {
+        this.encoding = encoding;
+    }
+
+    public Long getStoredSize() {
+        return storedSize;
+    }
+
+    public Content storedSize(Long storedSize) {
+        this.storedSize = storedSize;
+        return this;
+    }
+
+    public void setStoredSize(Long storedSize) {
+        this.storedSize = storedSize;
+    }
+
+    public String getStore() {
+        return store;
+    }
+
+    public Content store(String store) {
+        this.store = store;
+        return this;
+    }
+
+    public void setStore(String store) {
+        this.store = store;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public Content location(String location) {
+        this.location = location;
+        return this;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public Instant getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    public Set<Document> getDocuments() {
+        return documents;
+    }
+
+    public Content documents(Set<Document> documents) {
+        this.documents = documents;
+        return this;
+    }
+
+    public Content addDocument(Document document) {
+        this.documents.add(document);
+        document.setContent(this);
+        return this;
     }
 
-    public Content document(Document document) {
-        this.document = document;
+    public Content removeDocument(Document document) {
+        this.documents.remove(document);
+        document.setContent(null);
         return this;
     }
 
-    public void setDocument(Document document) {
-        this.document = document;
+    public void setDocuments(Set<Document> documents) {
+        this.documents = documents;
     }
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here, do not remove
 
@@ -112,8 +300,12 @@ public class Content implements Serializable {
     public String toString() {
         return "Content{" +
             "id=" + getId() +
-            ", data='" + getData() + "'" +
             ", dataContentType='" + getDataContentType() + "'" +
+            ", checksum='" + getChecksum() + "'" +
+            ", size=" + getSize() +
+            ", encoding='" + getEncoding() + "'" +
+            ", storedSize=" + getStoredSize() +
+            ", store='" + getStore() + "'" +
             "}";
     }
 }
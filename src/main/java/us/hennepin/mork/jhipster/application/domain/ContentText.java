@@ -0,0 +1,97 @@
+package us.hennepin.mork.jhipster.application.domain;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * The text extracted from the payload of a Content, indexed with the documents referencing the content.
+ * <p>
+ * It is kept apart from the content and document tables, so that reading them never reads the text.
+ */
+@Entity
+@Table(name = "content_text")
+public class ContentText implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "content_id")
+    private Long contentId;
+
+    @Lob
+    @Column(name = "text")
+    private String text;
+
+    @Column(name = "extracted_date", nullable = false)
+    private Instant extractedDate;
+
+    public Long getContentId() {
+        return contentId;
+    }
+
+    public ContentText contentId(Long contentId) {
+        this.contentId = contentId;
+        return this;
+    }
+
+    public void setContentId(Long contentId) {
+        this.contentId = contentId;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public ContentText text(String text) {
+        this.text = text;
+        return this;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public Instant getExtractedDate() {
+        return extractedDate;
+    }
+
+    public ContentText extractedDate(Instant extractedDate) {
+        this.extractedDate = extractedDate;
+        return this;
+    }
+
+    public void setExtractedDate(Instant extractedDate) {
+        this.extractedDate = extractedDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ContentText contentText = (ContentText) o;
+        if (contentText.getContentId() == null || getContentId() == null) {
+            return false;
+        }
+        return Objects.equals(getContentId(), contentText.getContentId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getContentId());
+    }
+
+    @Override
+    public String toString() {
+        return "ContentText{" +
+            "contentId=" + getContentId() +
+            ", length=" + (getText() != null ? getText().length() : 0) +
+            ", extractedDate='" + getExtractedDate() + "'" +
+            "}";
+    }
+}
@@ -1,22 +1,29 @@
 package us.hennepin.mork.jhipster.application.domain;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import javax.persistence.*;
 import javax.validation.constraints.*;
 
 import org.springframework.data.elasticsearch.annotations.Document;
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.Objects;
 
 /**
  * A Document.
+ * <p>
+ * The version and last modified date of a document are the validators of its metadata in HTTP conditional requests.
  */
 @Entity
 @Table(name = "document")
+@EntityListeners(AuditingEntityListener.class)
 @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 @Document(indexName = "document")
 public class Document implements Serializable {
@@ -24,7 +31,9 @@ public class Document implements Serializable {
     private static final long serialVersionUID = 1L;
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "documentGenerator")
+    @TableGenerator(name = "documentGenerator", table = "id_generator", pkColumnName = "sequence_name", valueColumnName = "next_val",
+        pkColumnValue = "document", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -38,8 +47,30 @@ public class Document implements Serializable {
     @Column(name = "mime_type")
     private String mimeType;
 
-    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
-    @JoinColumn(unique = true)
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @LastModifiedDate
+    @Column(name = "last_modified_date")
+    @JsonIgnore
+    private Instant lastModifiedDate = Instant.now();
+
+    /**
+     * The last time the content was read, with a resolution of a few hours, see {@link us.hennepin.mork.jhipster.application.service.ContentTieringService}.
+     */
+    @Column(name = "last_accessed_date")
+    @JsonIgnore
+    private Instant lastAccessedDate;
+
+    /**
+     * The text of the content, only set to be indexed, see {@link ContentText}.
+     */
+    @Transient
+    @JsonIgnore
+    private String text;
+
+    @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.PERSIST)
     @JsonIgnore
     private Content content;
 
@@ -50,17 +81,6 @@ public class Document implements Serializable {
 
     // jhipster-needle-entity-add-field - JHipster will add fields here, do not remove
     
-    public void addContent(byte[] data) {
-        Content content = new Content();
-        content.setData(data);
-        content.setDataContentType("not-used"); // the field is generated by JHipster but redundant in our case, we can delete it later
-        this.content = content:
-    }
-    
-    public byte[] retrieveContent() {
-        return content.getData();
-    }
-        
     public Long getId() {
         return id;
     }
@@ -108,7 +128,39 @@ public class Document implements Serializable {
         this.mimeType = mimeType;
     }
 
-     public Content getContent() {
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Instant getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    public void setLastModifiedDate(Instant lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
+    public Instant getLastAccessedDate() {
+        return lastAccessedDate;
+    }
+
+    public void setLastAccessedDate(Instant lastAccessedDate) {
+        this.lastAccessedDate = lastAccessedDate;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public Content getContent() {
         return content;
     }
 
@@ -162,6 +214,7 @@ public class Document implements Serializable {
             ", title='" + getTitle() + "'" +
             ", size=" + getSize() +
             ", mimeType='" + getMimeType() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -2,6 +2,7 @@ package us.hennepin.mork.jhipster.application.domain;
 
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
 
@@ -10,6 +11,7 @@ import javax.validation.constraints.*;
 
 import org.springframework.data.elasticsearch.annotations.Document;
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.Objects;
@@ -26,14 +28,44 @@ public class Person implements Serializable {
     private static final long serialVersionUID = 1L;
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "personGenerator")
+    @TableGenerator(name = "personGenerator", table = "id_generator", pkColumnName = "sequence_name", valueColumnName = "next_val",
+        pkColumnValue = "person", allocationSize = 50)
     private Long id;
 
     @NotNull
     @Column(name = "model", nullable = false)
     private String model;
 
-    @OneToMany(mappedBy = "person", cascade = CascadeType.All, fetch = FetchType.EAGER)
+    /**
+     * The number of documents of the person, maintained by {@link us.hennepin.mork.jhipster.application.service.PersonSummaryService}.
+     */
+    @Column(name = "document_count", insertable = false, updatable = false)
+    @JsonIgnore
+    private Long documentCount;
+
+    /**
+     * The total size of the documents of the person, maintained by {@link us.hennepin.mork.jhipster.application.service.PersonSummaryService}.
+     */
+    @Column(name = "document_size", insertable = false, updatable = false)
+    @JsonIgnore
+    private Long documentSize;
+
+    /**
+     * The last time a document was added to the person, maintained by {@link us.hennepin.mork.jhipster.application.service.PersonSummaryService}.
+     */
+    @Column(name = "last_upload_date", insertable = false, updatable = false)
+    @JsonIgnore
+    private Instant lastUploadDate;
+
+    /**
+     * The documents of the person, loaded on demand.
+     * <p>
+     * Queries that need them fetch them with an entity graph, see {@link us.hennepin.mork.jhipster.application.repository.PersonRepository},
+     * otherwise the collections of up to 50 people of the persistence context are initialized by the same select.
+     */
+    @OneToMany(mappedBy = "person", cascade = CascadeType.ALL)
+    @BatchSize(size = 50)
     @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
     private Set<Document> documents = new HashSet<>();
     // jhipster-needle-entity-add-field - JHipster will add fields here, do not remove
@@ -58,6 +90,18 @@ public class Person implements Serializable {
         this.model = model;
     }
 
+    public Long getDocumentCount() {
+        return documentCount;
+    }
+
+    public Long getDocumentSize() {
+        return documentSize;
+    }
+
+    public Instant getLastUploadDate() {
+        return lastUploadDate;
+    }
+
     public Set<Document> getDocuments() {
         return documents;
     }
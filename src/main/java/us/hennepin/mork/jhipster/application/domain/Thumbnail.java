@@ -0,0 +1,150 @@
+package us.hennepin.mork.jhipster.application.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * A small image previewing the payload of a Content, the first page of multi-page payloads.
+ * <p>
+ * Thumbnails are a few kilobytes, they are kept in the database whatever the content store.
+ */
+@Entity
+@Table(name = "thumbnail")
+public class Thumbnail implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "content_id")
+    private Long contentId;
+
+    @Lob
+    @Column(name = "data", nullable = false)
+    @JsonIgnore
+    private byte[] data;
+
+    @Column(name = "mime_type", nullable = false)
+    private String mimeType;
+
+    @Column(name = "width", nullable = false)
+    private Integer width;
+
+    @Column(name = "height", nullable = false)
+    private Integer height;
+
+    @Column(name = "created_date", nullable = false)
+    private Instant createdDate;
+
+    public Long getContentId() {
+        return contentId;
+    }
+
+    public Thumbnail contentId(Long contentId) {
+        this.contentId = contentId;
+        return this;
+    }
+
+    public void setContentId(Long contentId) {
+        this.contentId = contentId;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public Thumbnail data(byte[] data) {
+        this.data = data;
+        return this;
+    }
+
+    public void setData(byte[] data) {
+        this.data = data;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    public Thumbnail mimeType(String mimeType) {
+        this.mimeType = mimeType;
+        return this;
+    }
+
+    public void setMimeType(String mimeType) {
+        this.mimeType = mimeType;
+    }
+
+    public Integer getWidth() {
+        return width;
+    }
+
+    public Thumbnail width(Integer width) {
+        this.width = width;
+        return this;
+    }
+
+    public void setWidth(Integer width) {
+        this.width = width;
+    }
+
+    public Integer getHeight() {
+        return height;
+    }
+
+    public Thumbnail height(Integer height) {
+        this.height = height;
+        return this;
+    }
+
+    public void setHeight(Integer height) {
+        this.height = height;
+    }
+
+    public Instant getCreatedDate() {
+        return createdDate;
+    }
+
+    public Thumbnail createdDate(Instant createdDate) {
+        this.createdDate = createdDate;
+        return this;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Thumbnail thumbnail = (Thumbnail) o;
+        if (thumbnail.getContentId() == null || getContentId() == null) {
+            return false;
+        }
+        return Objects.equals(getContentId(), thumbnail.getContentId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getContentId());
+    }
+
+    @Override
+    public String toString() {
+        return "Thumbnail{" +
+            "contentId=" + getContentId() +
+            ", mimeType='" + getMimeType() + "'" +
+            ", width=" + getWidth() +
+            ", height=" + getHeight() +
+            ", createdDate='" + getCreatedDate() + "'" +
+            "}";
+    }
+}
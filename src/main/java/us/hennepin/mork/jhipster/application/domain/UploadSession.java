@@ -0,0 +1,190 @@
+package us.hennepin.mork.jhipster.application.domain;
+
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import javax.persistence.*;
+import javax.validation.constraints.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * A resumable upload of a Document, whose payload is received in chunks.
+ */
+@Entity
+@Table(name = "upload_session")
+public class UploadSession implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "uploadSessionGenerator")
+    @TableGenerator(name = "uploadSessionGenerator", table = "id_generator", pkColumnName = "sequence_name", valueColumnName = "next_val",
+        pkColumnValue = "upload_session", allocationSize = 50)
+    private Long id;
+
+    @NotNull
+    @Column(name = "title", nullable = false)
+    private String title;
+
+    @Column(name = "mime_type")
+    private String mimeType;
+
+    /**
+     * Expected size of the payload.
+     */
+    @NotNull
+    @Min(value = 0L)
+    @Column(name = "jhi_size", nullable = false)
+    private Long size;
+
+    /**
+     * Expected SHA-256 checksum of the payload, verified when the upload is completed.
+     */
+    @Size(min = 64, max = 64)
+    @Column(name = "checksum", length = 64)
+    private String checksum;
+
+    /**
+     * Number of bytes received so far, the offset of the next chunk.
+     */
+    @Column(name = "received", nullable = false)
+    private Long received = 0L;
+
+    @Column(name = "created_date", nullable = false)
+    private Instant createdDate = Instant.now();
+
+    @ManyToOne(optional = false)
+    @NotNull
+    @JsonIgnoreProperties("documents")
+    private Person person;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public UploadSession title(String title) {
+        this.title = title;
+        return this;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    public UploadSession mimeType(String mimeType) {
+        this.mimeType = mimeType;
+        return this;
+    }
+
+    public void setMimeType(String mimeType) {
+        this.mimeType = mimeType;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public UploadSession size(Long size) {
+        this.size = size;
+        return this;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public UploadSession checksum(String checksum) {
+        this.checksum = checksum;
+        return this;
+    }
+
+    public void setChecksum(String checksum) {
+        this.checksum = checksum;
+    }
+
+    public Long getReceived() {
+        return received;
+    }
+
+    public UploadSession received(Long received) {
+        this.received = received;
+        return this;
+    }
+
+    public void setReceived(Long received) {
+        this.received = received;
+    }
+
+    public Instant getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    public Person getPerson() {
+        return person;
+    }
+
+    public UploadSession person(Person person) {
+        this.person = person;
+        return this;
+    }
+
+    public void setPerson(Person person) {
+        this.person = person;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        UploadSession uploadSession = (UploadSession) o;
+        if (uploadSession.getId() == null || getId() == null) {
+            return false;
+        }
+        return Objects.equals(getId(), uploadSession.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getId());
+    }
+
+    @Override
+    public String toString() {
+        return "UploadSession{" +
+            "id=" + getId() +
+            ", title='" + getTitle() + "'" +
+            ", mimeType='" + getMimeType() + "'" +
+            ", size=" + getSize() +
+            ", checksum='" + getChecksum() + "'" +
+            ", received=" + getReceived() +
+            ", createdDate='" + getCreatedDate() + "'" +
+            "}";
+    }
+}
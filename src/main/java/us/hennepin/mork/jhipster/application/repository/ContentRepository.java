@@ -1,9 +1,19 @@
 package us.hennepin.mork.jhipster.application.repository;
 
 import us.hennepin.mork.jhipster.application.domain.Content;
+import us.hennepin.mork.jhipster.application.service.dto.ContentSummaryDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 
 /**
  * Spring Data  repository for the Content entity.
@@ -12,4 +22,52 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface ContentRepository extends JpaRepository<Content, Long> {
 
+    Optional<Content> findOneByChecksum(String checksum);
+
+    /**
+     * A locking read, which unlike the consistent reads of a repeatable read transaction sees the contents
+     * committed by other transactions since it started.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select content from Content content where content.checksum = :checksum")
+    Optional<Content> findLockedByChecksum(@Param("checksum") String checksum);
+
+    /**
+     * A locking read, see {@link #findLockedByChecksum(String)}.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select content from Content content where content.id = :id")
+    Optional<Content> findLockedById(@Param("id") Long id);
+
+    @Query(value = "select new us.hennepin.mork.jhipster.application.service.dto.ContentSummaryDTO("
+            + "content.id, content.dataContentType, content.checksum, content.size, content.storedSize, content.store)"
+            + " from Content content"
+            + " where not exists (select document.id from Document document where document.content = content)",
+        countQuery = "select count(content) from Content content"
+            + " where not exists (select document.id from Document document where document.content = content)")
+    Page<ContentSummaryDTO> findAllOrphans(Pageable pageable);
+
+    @Query("select content.id from Content content where content.id > :after and (content.store is null or content.store <> :store) order by content.id")
+    List<Long> findIdsNotInStore(@Param("store") String store, @Param("after") Long after, Pageable pageable);
+
+    /**
+     * Ids of the contents without documents, stored before a date, as the documents of younger contents may not be
+     * committed yet.
+     */
+    @Query("select content.id from Content content where content.id > :after"
+        + " and (content.createdDate is null or content.createdDate < :before)"
+        + " and not exists (select document.id from Document document where document.content = content) order by content.id")
+    List<Long> findOrphanIds(@Param("before") Instant before, @Param("after") Long after, Pageable pageable);
+
+    @Query("select content.location from Content content where content.store = :store and content.location in :locations")
+    List<String> findLocationsInStore(@Param("store") String store, @Param("locations") Collection<String> locations);
+
+    /**
+     * Ids of the referenced contents outside of a store, none of whose documents was read or modified since a date.
+     */
+    @Query("select content.id from Content content where content.id > :after and (content.store is null or content.store <> :store)"
+        + " and exists (select document.id from Document document where document.content = content)"
+        + " and not exists (select document.id from Document document where document.content = content"
+        + " and (document.lastAccessedDate >= :before or document.lastModifiedDate >= :before)) order by content.id")
+    List<Long> findIdleIdsNotInStore(@Param("store") String store, @Param("before") Instant before, @Param("after") Long after, Pageable pageable);
 }
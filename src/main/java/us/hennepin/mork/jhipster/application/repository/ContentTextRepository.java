@@ -0,0 +1,15 @@
+package us.hennepin.mork.jhipster.application.repository;
+
+import us.hennepin.mork.jhipster.application.domain.ContentText;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.stereotype.Repository;
+
+
+/**
+ * Spring Data  repository for the ContentText entity.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface ContentTextRepository extends JpaRepository<ContentText, Long> {
+
+}
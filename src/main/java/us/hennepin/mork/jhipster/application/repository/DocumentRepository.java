@@ -1,15 +1,71 @@
 package us.hennepin.mork.jhipster.application.repository;
 
 import us.hennepin.mork.jhipster.application.domain.Document;
+import us.hennepin.mork.jhipster.application.service.dto.DocumentContentDTO;
+import us.hennepin.mork.jhipster.application.service.dto.DocumentMetadataDTO;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 
 /**
  * Spring Data  repository for the Document entity.
  */
 @SuppressWarnings("unused")
 @Repository
-public interface DocumentRepository extends JpaRepository<Document, Long> {
+public interface DocumentRepository extends JpaRepository<Document, Long>, JpaSpecificationExecutor<Document> {
+
+    long countByContentId(Long contentId);
+
+    List<Document> findAllByContentId(Long contentId);
+
+    /**
+     * The documents of a person which have a content, in id order, with the metadata of their content.
+     */
+    @Query("select new us.hennepin.mork.jhipster.application.service.dto.DocumentContentDTO(document.id, document.title,"
+        + " document.mimeType, document.lastModifiedDate, document.lastAccessedDate, content.id, content.checksum,"
+        + " coalesce(content.size, document.size), content.store) from Document document join document.content content"
+        + " where document.person.id = :personId order by document.id")
+    List<DocumentContentDTO> findAllContentsByPersonId(@Param("personId") Long personId);
+
+    /**
+     * A document which has a content, with the metadata of its content, see {@link #findAllContentsByPersonId(Long)}.
+     */
+    @Query("select new us.hennepin.mork.jhipster.application.service.dto.DocumentContentDTO(document.id, document.title,"
+        + " document.mimeType, document.lastModifiedDate, document.lastAccessedDate, content.id, content.checksum,"
+        + " coalesce(content.size, document.size), content.store) from Document document join document.content content"
+        + " where document.id = :id")
+    Optional<DocumentContentDTO> findContentById(@Param("id") Long id);
+
+    @Query("select new us.hennepin.mork.jhipster.application.service.dto.DocumentMetadataDTO(document.id, document.title,"
+        + " document.size, document.mimeType, document.version, document.lastModifiedDate, document.person.id) from Document document"
+        + " where document.id = :id")
+    Optional<DocumentMetadataDTO> findMetadataById(@Param("id") Long id);
+
+    @Query("select new us.hennepin.mork.jhipster.application.service.dto.DocumentMetadataDTO(document.id, document.title,"
+        + " document.size, document.mimeType, document.version, document.lastModifiedDate, document.person.id) from Document document"
+        + " where document.id > :after order by document.id")
+    List<DocumentMetadataDTO> findAllMetadataAfter(@Param("after") Long after, Pageable pageable);
+
+    @Query("select new us.hennepin.mork.jhipster.application.service.dto.DocumentMetadataDTO(document.id, document.title,"
+        + " document.size, document.mimeType, document.version, document.lastModifiedDate, document.person.id) from Document document"
+        + " where document.person.id > :personId or (document.person.id = :personId and document.id > :after)"
+        + " order by document.person.id, document.id")
+    List<DocumentMetadataDTO> findAllMetadataAfterByPerson(@Param("personId") Long personId, @Param("after") Long after, Pageable pageable);
 
+    /**
+     * Stream the metadata of every document, in id order, fetching the rows from the database in batches.
+     * <p>
+     * The stream must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new us.hennepin.mork.jhipster.application.service.dto.DocumentMetadataDTO(document.id, document.title, document.size,"
+        + " document.mimeType, person.id) from Document document left join document.person person order by document.id")
+    Stream<DocumentMetadataDTO> streamAllMetadata();
 }
@@ -1,8 +1,18 @@
 package us.hennepin.mork.jhipster.application.repository;
 
 import us.hennepin.mork.jhipster.application.domain.Person;
+import us.hennepin.mork.jhipster.application.service.dto.PersonSummaryDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 
 /**
@@ -12,4 +22,43 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface PersonRepository extends JpaRepository<Person, Long> {
 
+    @Query("select person from Person person where person.id > :after order by person.id")
+    List<Person> findAllAfter(@Param("after") Long after, Pageable pageable);
+
+    @EntityGraph(attributePaths = "documents")
+    Optional<Person> findOneWithDocumentsById(Long id);
+
+    @EntityGraph(attributePaths = "documents")
+    List<Person> findAllWithDocumentsByIdIn(Collection<Long> ids);
+
+    @Query(value = "select new us.hennepin.mork.jhipster.application.service.dto.PersonSummaryDTO(person.id, person.model, person.documentCount,"
+        + " person.documentSize, person.lastUploadDate) from Person person",
+        countQuery = "select count(person) from Person person")
+    Page<PersonSummaryDTO> findAllSummaries(Pageable pageable);
+
+    @Query("select new us.hennepin.mork.jhipster.application.service.dto.PersonSummaryDTO(person.id, person.model, person.documentCount,"
+        + " person.documentSize, person.lastUploadDate) from Person person where person.id = :id")
+    Optional<PersonSummaryDTO> findSummaryById(@Param("id") Long id);
+
+    @Query("select new us.hennepin.mork.jhipster.application.service.dto.PersonSummaryDTO(person.id, person.model, person.documentCount,"
+        + " person.documentSize, person.lastUploadDate) from Person person where person.id > :after order by person.id")
+    List<PersonSummaryDTO> findSummariesAfter(@Param("after") Long after, Pageable pageable);
+
+    /**
+     * Compute the aggregates of the documents of the given people from the documents themselves.
+     */
+    @Query("select new us.hennepin.mork.jhipster.application.service.dto.PersonSummaryDTO(person.id, person.model, count(document),"
+        + " sum(document.size), max(document.lastModifiedDate)) from Person person left join person.documents document"
+        + " where person.id in :ids group by person.id, person.model")
+    List<PersonSummaryDTO> computeSummaries(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Replace the aggregates of a person, unless they changed since they were read as {@code count} and {@code size}.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Person person set person.documentCount = :newCount, person.documentSize = :newSize, person.lastUploadDate = :lastUploadDate"
+        + " where person.id = :id and person.documentCount = :count and person.documentSize = :size")
+    int replaceSummary(@Param("id") Long id, @Param("count") long count, @Param("size") long size, @Param("newCount") long newCount,
+        @Param("newSize") long newSize, @Param("lastUploadDate") Instant lastUploadDate);
 }
@@ -0,0 +1,15 @@
+package us.hennepin.mork.jhipster.application.repository;
+
+import us.hennepin.mork.jhipster.application.domain.Thumbnail;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.stereotype.Repository;
+
+
+/**
+ * Spring Data  repository for the Thumbnail entity.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface ThumbnailRepository extends JpaRepository<Thumbnail, Long> {
+
+}
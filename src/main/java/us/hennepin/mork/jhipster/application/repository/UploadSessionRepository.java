@@ -0,0 +1,29 @@
+package us.hennepin.mork.jhipster.application.repository;
+
+import us.hennepin.mork.jhipster.application.domain.UploadSession;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+
+/**
+ * Spring Data  repository for the UploadSession entity.
+ */
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, Long> {
+
+    /**
+     * Read a session and lock it until the transaction completes, so that the chunks of an upload are written one
+     * at a time.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select session from UploadSession session where session.id = :id")
+    Optional<UploadSession> findLockedById(@Param("id") Long id);
+
+    List<UploadSession> findAllByCreatedDateBefore(Instant dateTime);
+}
@@ -0,0 +1,112 @@
+package us.hennepin.mork.jhipster.application.service;
+
+import us.hennepin.mork.jhipster.application.config.ApplicationProperties;
+import us.hennepin.mork.jhipster.application.repository.ContentRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Service deleting the contents no document references anymore, e.g. contents created through the content API
+ * or left behind by documents deleted outside of the REST API.
+ * <p>
+ * Contents stored during the grace period are kept: a content is inserted in its own transaction, before the one
+ * of its document commits.
+ * <p>
+ * Orphans are found by the database with an anti-join on the document table, walked in id order and deleted in
+ * batches, each batch in its own transaction, with a pause between batches. Deleted contents and reclaimed bytes
+ * are reported as the {@code content.gc.*} metrics.
+ */
+@Service
+public class ContentGarbageCollectionService {
+
+    private final Logger log = LoggerFactory.getLogger(ContentGarbageCollectionService.class);
+
+    private final ContentRepository contentRepository;
+
+    private final ContentService contentService;
+
+    private final ApplicationProperties.Storage.GarbageCollection properties;
+
+    private final Counter deletedContents;
+
+    private final Counter reclaimedBytes;
+
+    public ContentGarbageCollectionService(ContentRepository contentRepository, ContentService contentService,
+            ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.contentRepository = contentRepository;
+        this.contentService = contentService;
+        this.properties = applicationProperties.getStorage().getGarbageCollection();
+        this.deletedContents = meterRegistry.counter("content.gc.deleted");
+        this.reclaimedBytes = meterRegistry.counter("content.gc.reclaimed.bytes");
+    }
+
+    /**
+     * Delete every orphaned content.
+     * <p>
+     * This is scheduled to get fired everyday, at 03:00 (am), when {@code application.storage.garbage-collection.enabled} is set.
+     */
+    @Scheduled(cron = "0 0 3 * * ?")
+    public void removeOrphanContents() {
+        if (properties.isEnabled()) {
+            collect();
+        }
+    }
+
+    /**
+     * Delete every orphaned content now.
+     *
+     * @return the number of stored bytes reclaimed
+     */
+    public long collect() {
+        PageRequest batch = PageRequest.of(0, properties.getBatchSize());
+        Instant before = Instant.now().minus(Duration.ofMinutes(properties.getGraceMinutes()));
+        long after = 0L;
+        long deleted = 0;
+        long reclaimed = 0;
+        List<Long> ids;
+        while (!(ids = contentRepository.findOrphanIds(before, after, batch)).isEmpty()) {
+            try {
+                // each content is checked again before it is deleted, it may have been reused since it was found
+                ContentService.Released released = contentService.releaseAll(ids);
+                deleted += released.getCount();
+                reclaimed += released.getBytes();
+                deletedContents.increment(released.getCount());
+                reclaimedBytes.increment(released.getBytes());
+            } catch (RuntimeException e) {
+                log.error("Could not delete orphan Contents {}", ids, e);
+            }
+            after = ids.get(ids.size() - 1);
+            if (!pause()) {
+                break;
+            }
+        }
+        if (deleted > 0) {
+            log.info("Deleted {} orphan Contents, reclaimed {} bytes", deleted, reclaimed);
+        }
+        return reclaimed;
+    }
+
+    private boolean pause() {
+        if (properties.getPause() <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(properties.getPause());
+            return true;
+        } catch (InterruptedException e) {
+            log.warn("Interrupted while deleting orphan Contents");
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package us.hennepin.mork.jhipster.application.service;
+
+import us.hennepin.mork.jhipster.application.config.ApplicationProperties;
+import us.hennepin.mork.jhipster.application.repository.ContentRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Service moving existing payloads to the content store configured by {@code application.storage.type}.
+ * <p>
+ * Contents are walked in id order and moved in batches, each batch in its own transaction, so the migration
+ * can be stopped and resumed at any time.
+ */
+@Service
+public class ContentMigrationService {
+
+    private final Logger log = LoggerFactory.getLogger(ContentMigrationService.class);
+
+    private final ContentRepository contentRepository;
+
+    private final ContentService contentService;
+
+    private final ApplicationProperties applicationProperties;
+
+    public ContentMigrationService(ContentRepository contentRepository, ContentService contentService, ApplicationProperties applicationProperties) {
+        this.contentRepository = contentRepository;
+        this.contentService = contentService;
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Move every payload that is not in the default store yet.
+     * <p>
+     * This is scheduled every 5 minutes, when {@code application.storage.migration.enabled} is set.
+     */
+    @Scheduled(cron = "0 */5 * * * ?")
+    public void migrateContents() {
+        if (!applicationProperties.getStorage().getMigration().isEnabled()) {
+            return;
+        }
+        String store = contentService.getDefaultStore().getName();
+        PageRequest batch = PageRequest.of(0, applicationProperties.getStorage().getMigration().getBatchSize());
+        long after = 0L;
+        int migrated = 0;
+        List<Long> ids;
+        while (!(ids = contentRepository.findIdsNotInStore(store, after, batch)).isEmpty()) {
+            try {
+                migrated += contentService.migrate(ids);
+            } catch (RuntimeException e) {
+                log.error("Could not move Contents {} to {}", ids, store, e);
+            }
+            after = ids.get(ids.size() - 1);
+        }
+        if (migrated > 0) {
+            log.info("Moved {} Contents to {}", migrated, store);
+        }
+    }
+}
@@ -0,0 +1,609 @@
+package us.hennepin.mork.jhipster.application.service;
+
+import us.hennepin.mork.jhipster.application.config.ApplicationProperties;
+import us.hennepin.mork.jhipster.application.domain.Content;
+import us.hennepin.mork.jhipster.application.repository.ContentRepository;
+import us.hennepin.mork.jhipster.application.repository.DocumentRepository;
+import us.hennepin.mork.jhipster.application.repository.search.ContentSearchRepository;
+import us.hennepin.mork.jhipster.application.service.store.ColdContentStore;
+import us.hennepin.mork.jhipster.application.service.store.ContentBlobCache;
+import us.hennepin.mork.jhipster.application.service.store.ContentCompressor;
+import us.hennepin.mork.jhipster.application.service.store.ContentStore;
+import us.hennepin.mork.jhipster.application.service.store.ContentStoredEvent;
+import us.hennepin.mork.jhipster.application.service.store.JpaContentStore;
+import us.hennepin.mork.jhipster.application.service.store.PackContentStore;
+import us.hennepin.mork.jhipster.application.service.store.PreparedContent;
+import us.hennepin.mork.jhipster.application.service.util.ChecksumUtil;
+import us.hennepin.mork.jhipster.application.service.util.MimeTypeUtil;
+import us.hennepin.mork.jhipster.application.web.rest.errors.BadRequestAlertException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.apache.commons.io.IOUtils;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for storing Content payloads.
+ * <p>
+ * Payloads are never materialized on the heap: they are read once to compute their size and checksum,
+ * then read a second time straight into the {@link ContentStore} configured by {@code application.storage.type}.
+ * Downloads are copied from the store holding the payload to the response with a fixed-size buffer.
+ * <p>
+ * Payloads whose MIME type compresses well are deflated before they reach the store, and inflated on the fly
+ * when they are read, see {@link ContentCompressor}.
+ * <p>
+ * When {@code application.storage.pack.enabled} is set, payloads of up to {@code pack.max-object-size} stored bytes
+ * are appended to the pack files of the {@link PackContentStore} instead, whatever the default store.
+ * <p>
+ * Contents are deduplicated by checksum: storing a payload that is already known returns the existing content
+ * without writing it again, and a content is only deleted when the last document referencing it is released.
+ */
+@Service
+@Transactional
+public class ContentService {
+
+    private final Logger log = LoggerFactory.getLogger(ContentService.class);
+
+    private final ContentRepository contentRepository;
+
+    private final ContentSearchRepository contentSearchRepository;
+
+    private final DocumentRepository documentRepository;
+
+    private final Map<String, ContentStore> stores;
+
+    private final ContentStore defaultStore;
+
+    private final ApplicationProperties.Storage.Pack packProperties;
+
+    private final ContentCompressor contentCompressor;
+
+    private final ContentBlobCache contentBlobCache;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final TransactionTemplate newTransaction;
+
+    public ContentService(ContentRepository contentRepository, ContentSearchRepository contentSearchRepository, DocumentRepository documentRepository,
+            List<ContentStore> stores, ContentCompressor contentCompressor, ContentBlobCache contentBlobCache,
+            ApplicationEventPublisher applicationEventPublisher, ApplicationProperties applicationProperties,
+            PlatformTransactionManager transactionManager) {
+        this.contentRepository = contentRepository;
+        this.contentSearchRepository = contentSearchRepository;
+        this.documentRepository = documentRepository;
+        this.contentCompressor = contentCompressor;
+        this.contentBlobCache = contentBlobCache;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.stores = stores.stream().collect(Collectors.toMap(ContentStore::getName, Function.identity()));
+        this.defaultStore = getStore(applicationProperties.getStorage().getType());
+        this.packProperties = applicationProperties.getStorage().getPack();
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Stream a payload into a Content, reusing the existing content if the same payload was already stored.
+     *
+     * @param source the payload, it must be readable twice (e.g. a {@link org.springframework.web.multipart.MultipartFile})
+     * @param contentType the MIME type of the payload
+     * @return the persisted content
+     * @throws IOException if the payload cannot be read
+     */
+    public Content store(InputStreamSource source, String contentType) throws IOException {
+        return store(source, contentType, null);
+    }
+
+    /**
+     * Stream a payload into a Content after verifying its checksum.
+     *
+     * @param source the payload, it must be readable twice
+     * @param contentType the MIME type of the payload
+     * @param expectedChecksum the SHA-256 checksum the payload must have, null to skip the verification
+     * @return the persisted content
+     * @throws IOException if the payload cannot be read
+     * @throws BadRequestAlertException if the payload does not match the expected checksum
+     */
+    public Content store(InputStreamSource source, String contentType, String expectedChecksum) throws IOException {
+        try (PreparedContent prepared = prepare(source, contentType, null)) {
+            if (expectedChecksum != null && !expectedChecksum.equalsIgnoreCase(prepared.getChecksum())) {
+                throw new BadRequestAlertException("Checksum mismatch, received " + prepared.getChecksum(), "content", "checksummismatch");
+            }
+            return store(prepared);
+        }
+    }
+
+    /**
+     * Read a payload to compute its size and checksum, detect its MIME type and compress it if it is worth it.
+     * <p>
+     * This does not use the database, and can be called from any thread.
+     *
+     * @param source the payload, it must be readable twice
+     * @param contentType the declared MIME type of the payload, may be null
+     * @param filename the name of the payload, may be null
+     * @return the prepared payload, to be closed by the caller
+     * @throws IOException if the payload cannot be read
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PreparedContent prepare(InputStreamSource source, String contentType, String filename) throws IOException {
+        MessageDigest digest = ChecksumUtil.newDigest();
+        byte[] head = new byte[MimeTypeUtil.MAGIC_LENGTH];
+        int headLength;
+        long size;
+        try (InputStream in = source.getInputStream()) {
+            headLength = IOUtils.read(in, head);
+            digest.update(head, 0, headLength);
+            size = headLength + ChecksumUtil.update(in, digest);
+        }
+        String checksum = ChecksumUtil.toHex(digest.digest());
+        String resolvedType = MimeTypeUtil.resolve(contentType, head, headLength, filename);
+
+        if (contentCompressor.isCompressible(resolvedType, size)) {
+            Path compressed = contentCompressor.compress(source);
+            long storedSize = Files.size(compressed);
+            contentCompressor.record(size, storedSize);
+            if (storedSize < size) {
+                return new PreparedContent(source, resolvedType, checksum, size, compressed, storedSize);
+            }
+            Files.deleteIfExists(compressed);
+        }
+        return new PreparedContent(source, resolvedType, checksum, size, null, size);
+    }
+
+    /**
+     * Write a prepared payload into a Content, reusing the existing content if the same payload was already stored.
+     * <p>
+     * The new content is inserted in its own transaction, so that a concurrent upload of the same payload failing on
+     * the unique checksum reuses the content of the winner instead of failing the whole request. A content whose
+     * calling transaction rolls back is left without documents, and collected by the
+     * {@link ContentGarbageCollectionService}.
+     * <p>
+     * A {@link ContentStoredEvent} is published for a new content.
+     *
+     * @param prepared the prepared payload, it is not closed
+     * @return the persisted content
+     * @throws IOException if the payload cannot be read
+     */
+    public Content store(PreparedContent prepared) throws IOException {
+        // locked until the calling transaction completes, so that it is not released before its documents reference it
+        Optional<Content> existing = contentRepository.findLockedByChecksum(prepared.getChecksum())
+            .filter(content -> isSamePayload(content, prepared));
+        if (existing.isPresent()) {
+            log.debug("Reusing Content {} with checksum {}", existing.get().getId(), prepared.getChecksum());
+            return existing.get();
+        }
+        Long id;
+        try {
+            id = insert(prepared);
+        } catch (DataIntegrityViolationException e) {
+            Content winner = contentRepository.findLockedByChecksum(prepared.getChecksum())
+                .filter(content -> isSamePayload(content, prepared))
+                .orElseThrow(() -> e);
+            log.debug("Reusing Content {} with checksum {}, stored concurrently", winner.getId(), prepared.getChecksum());
+            return winner;
+        }
+        applicationEventPublisher.publishEvent(new ContentStoredEvent(id));
+        return contentRepository.findLockedById(id)
+            .orElseThrow(() -> new IllegalStateException("Content " + id + " was deleted after it was stored"));
+    }
+
+    private Long insert(PreparedContent prepared) throws IOException {
+        ContentStore store = selectStore(prepared.getStoredSize());
+        log.debug("Storing content of {} bytes with checksum {} in {}", prepared.getSize(), prepared.getChecksum(), store.getName());
+        try {
+            return newTransaction.execute(status -> {
+                Content content = new Content()
+                    .dataContentType(prepared.getContentType())
+                    .checksum(prepared.getChecksum())
+                    .size(prepared.getSize())
+                    .encoding(prepared.getEncoding())
+                    .storedSize(prepared.getStoredSize());
+                try {
+                    Content result = store.save(content, prepared.getStoredSource());
+                    contentRepository.flush();
+                    return result.getId();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static boolean isSamePayload(Content content, PreparedContent prepared) {
+        return content.getSize() != null && content.getSize() == prepared.getSize();
+    }
+
+    /**
+     * Store a payload given as bytes, as the JSON API does, reusing the existing content if it was already stored.
+     *
+     * @param data the payload
+     * @param contentType the MIME type of the payload
+     * @return the content, with its payload
+     * @throws IOException if the payload cannot be written
+     */
+    public Content create(byte[] data, String contentType) throws IOException {
+        return withPayload(store(new ByteArrayResource(data), contentType), data);
+    }
+
+    /**
+     * Update the MIME type of a content, and its payload when one is given.
+     * <p>
+     * Contents are shared by the documents of a same payload, so a new payload is never written over the previous
+     * one: it is stored in its own content, reusing the one already holding it, and the previous content is
+     * released, its documents keep their payload. The checksum, sizes, encoding and store of the content are
+     * derived from the payload, the ones given are ignored.
+     *
+     * @param update the content holding the new values
+     * @return the updated content with its payload, which is another content when the payload changed, empty if
+     * the content does not exist
+     * @throws IOException if the payload cannot be written
+     */
+    public Optional<Content> update(Content update) throws IOException {
+        Optional<Content> existing = contentRepository.findById(update.getId());
+        if (!existing.isPresent()) {
+            return Optional.empty();
+        }
+        Content content = existing.get();
+        byte[] data = update.getData();
+        if (data == null) {
+            if (update.getDataContentType() != null) {
+                content.setDataContentType(update.getDataContentType());
+            }
+            return Optional.of(withPayload(content));
+        }
+        try (PreparedContent prepared = prepare(new ByteArrayResource(data), update.getDataContentType(), null)) {
+            if (prepared.getChecksum().equals(content.getChecksum())) {
+                content.setDataContentType(prepared.getContentType());
+                return Optional.of(withPayload(contentRepository.saveAndFlush(content), data));
+            }
+            Content stored = store(prepared);
+            log.debug("Replacing Content {} by Content {}", content.getId(), stored.getId());
+            release(content.getId());
+            return Optional.of(withPayload(stored, data));
+        }
+    }
+
+    /**
+     * Get a content with its payload, as it was uploaded, whatever the store holding it.
+     *
+     * @param id the id of the content
+     * @return the content, with its payload
+     * @throws IOException if the payload cannot be read
+     */
+    @Transactional(readOnly = true)
+    public Optional<Content> findOne(Long id) throws IOException {
+        Optional<Content> content = contentRepository.findById(id);
+        return content.isPresent() ? Optional.of(withPayload(content.get())) : Optional.empty();
+    }
+
+    /**
+     * Get a page of contents with their payloads, as they were uploaded, whatever the stores holding them.
+     *
+     * @param pageable the pagination information
+     * @return the page of contents, with their payloads
+     * @throws IOException if a payload cannot be read
+     */
+    @Transactional(readOnly = true)
+    public Page<Content> findAll(Pageable pageable) throws IOException {
+        Page<Content> page = contentRepository.findAll(pageable);
+        List<Content> contents = new ArrayList<>(page.getNumberOfElements());
+        for (Content content : page) {
+            contents.add(withPayload(content));
+        }
+        return new PageImpl<>(contents, pageable, page.getTotalElements());
+    }
+
+    /**
+     * @return a detached copy of a content holding its payload as uploaded, for the JSON API
+     */
+    private Content withPayload(Content content) throws IOException {
+        if (content.getBlob() == null && JpaContentStore.NAME.equals(getStore(content).getName())) {
+            return withPayload(content, null);
+        }
+        try (InputStream in = open(content)) {
+            return withPayload(content, IOUtils.toByteArray(in));
+        }
+    }
+
+    private static Content withPayload(Content content, byte[] payload) {
+        Content copy = new Content()
+            .data(payload)
+            .dataContentType(content.getDataContentType())
+            .checksum(content.getChecksum())
+            .size(content.getSize())
+            .encoding(content.getEncoding())
+            .storedSize(content.getStoredSize())
+            .store(content.getStore());
+        copy.setId(content.getId());
+        return copy;
+    }
+
+    /**
+     * Release a reference to a content, the content is deleted when no document references it anymore.
+     * <p>
+     * References are counted in the document table rather than in a counter column, so that documents deleted
+     * through a cascade are accounted for as well.
+     *
+     * @param id the id of the released content
+     * @return the number of stored bytes reclaimed, empty if the content is still referenced or does not exist
+     */
+    public OptionalLong release(Long id) {
+        if (documentRepository.countByContentId(id) == 0) {
+            Optional<Content> content = contentRepository.findById(id);
+            if (content.isPresent()) {
+                log.debug("Deleting unreferenced Content : {}", id);
+                Long storedSize = content.get().getStoredSize() != null ? content.get().getStoredSize() : content.get().getSize();
+                getStore(content.get()).delete(content.get());
+                contentBlobCache.evict(content.get());
+                contentRepository.delete(content.get());
+                contentSearchRepository.deleteById(id);
+                return OptionalLong.of(storedSize != null ? storedSize : 0L);
+            }
+        }
+        return OptionalLong.empty();
+    }
+
+    /**
+     * Delete a content, unless a document still references it.
+     *
+     * @param id the id of the content
+     * @return false if the content is still referenced, true if it was deleted or did not exist
+     */
+    public boolean delete(Long id) {
+        if (documentRepository.countByContentId(id) > 0) {
+            return false;
+        }
+        release(id);
+        return true;
+    }
+
+    /**
+     * Release some contents, in one transaction.
+     *
+     * @param ids the ids of the released contents
+     * @return the contents actually deleted, the ones still referenced or already deleted are left out
+     */
+    public Released releaseAll(List<Long> ids) {
+        Released released = new Released();
+        ids.forEach(id -> release(id).ifPresent(released::add));
+        return released;
+    }
+
+    /**
+     * Move the payloads of some contents to the default store.
+     *
+     * @param ids the ids of the contents to move
+     * @return the number of contents moved
+     */
+    public int migrate(List<Long> ids) {
+        int migrated = 0;
+        for (Long id : ids) {
+            Optional<Content> content = contentRepository.findById(id);
+            if (!content.isPresent()) {
+                continue;
+            }
+            ContentStore source = getStore(content.get());
+            // idle payloads stay in the cold store until they are read again
+            if (source == defaultStore || ColdContentStore.NAME.equals(source.getName())) {
+                continue;
+            }
+            try {
+                if (content.get().getStoredSize() == null) {
+                    content.get().setStoredSize(source.length(content.get()));
+                }
+                // small payloads already packed stay there, they are never moved into the pack files
+                if (source == selectStore(content.get().getStoredSize())) {
+                    continue;
+                }
+                defaultStore.save(content.get(), () -> source.open(content.get()));
+                source.delete(content.get());
+                migrated++;
+            } catch (IOException e) {
+                log.error("Could not move Content {} from {} to {}", id, source.getName(), defaultStore.getName(), e);
+            }
+        }
+        return migrated;
+    }
+
+    /**
+     * Move the payloads of some contents to the cold store, deflating the ones stored as is.
+     *
+     * @param ids the ids of the contents to move
+     * @return the number of contents moved
+     */
+    public int demote(List<Long> ids) {
+        ContentStore cold = getStore(ColdContentStore.NAME);
+        int demoted = 0;
+        for (Long id : ids) {
+            Optional<Content> content = contentRepository.findById(id);
+            if (!content.isPresent() || getStore(content.get()) == cold) {
+                continue;
+            }
+            ContentStore source = getStore(content.get());
+            String encoding = content.get().getEncoding();
+            Long storedSize = content.get().getStoredSize();
+            try {
+                if (storedSize == null) {
+                    content.get().setStoredSize(source.length(content.get()));
+                }
+                if (encoding == null) {
+                    saveDeflated(content.get(), source, cold);
+                } else {
+                    cold.save(content.get(), () -> source.open(content.get()));
+                }
+                source.delete(content.get());
+                contentBlobCache.evict(content.get());
+                demoted++;
+            } catch (IOException e) {
+                content.get().setEncoding(encoding);
+                content.get().setStoredSize(storedSize);
+                log.error("Could not move Content {} from {} to {}", id, source.getName(), cold.getName(), e);
+            }
+        }
+        return demoted;
+    }
+
+    /**
+     * Move the payload of a content from the cold store back to the store it would be written to today.
+     * <p>
+     * The payload is moved as stored, it stays deflated if it was deflated when it was demoted.
+     *
+     * @param id the id of the content
+     * @return true if the content was moved, false if it is not in the cold store
+     * @throws IOException if the payload cannot be moved
+     */
+    public boolean promote(Long id) throws IOException {
+        Optional<Content> content = contentRepository.findById(id)
+            .filter(c -> ColdContentStore.NAME.equals(c.getStore()));
+        if (!content.isPresent()) {
+            return false;
+        }
+        ContentStore cold = getStore(content.get());
+        ContentStore target = selectStore(content.get().getStoredSize());
+        target.save(content.get(), () -> cold.open(content.get()));
+        cold.delete(content.get());
+        return true;
+    }
+
+    private void saveDeflated(Content content, ContentStore source, ContentStore target) throws IOException {
+        Path compressed = contentCompressor.compress(() -> source.open(content));
+        try {
+            long storedSize = Files.size(compressed);
+            if (storedSize < content.getStoredSize()) {
+                content.setEncoding(ContentCompressor.DEFLATE);
+                content.setStoredSize(storedSize);
+                target.save(content, () -> Files.newInputStream(compressed));
+            } else {
+                target.save(content, () -> source.open(content));
+            }
+        } finally {
+            Files.deleteIfExists(compressed);
+        }
+    }
+
+    /**
+     * Open a payload for reading, as it was uploaded.
+     *
+     * @param content the content
+     * @return a stream over the payload, to be closed by the caller
+     * @throws IOException if the payload cannot be read
+     */
+    @Transactional(readOnly = true)
+    public InputStream open(Content content) throws IOException {
+        return contentCompressor.decode(getStore(content).open(content), content.getEncoding());
+    }
+
+    /**
+     * Copy a range of a payload to a stream.
+     *
+     * @param id the id of the content
+     * @param offset the zero-based position of the first byte to copy
+     * @param length the number of bytes to copy
+     * @param out the stream to copy to, it is not closed
+     * @throws IOException if the payload cannot be read or the stream cannot be written
+     */
+    @Transactional(readOnly = true)
+    public void copy(Long id, long offset, long length, OutputStream out) throws IOException {
+        Content content = contentRepository.findById(id)
+            .orElseThrow(() -> new IllegalArgumentException("Content " + id + " does not exist"));
+        if (contentBlobCache.isCacheable(content)) {
+            byte[] payload = contentBlobCache.get(content).orElse(null);
+            if (payload == null) {
+                try (InputStream in = open(content)) {
+                    payload = IOUtils.toByteArray(in, content.getSize());
+                }
+                contentBlobCache.put(content, payload);
+            }
+            out.write(payload, Math.toIntExact(offset), Math.toIntExact(length));
+            return;
+        }
+        if (content.getEncoding() == null) {
+            getStore(content).copy(content, offset, length, out);
+            return;
+        }
+        try (InputStream in = open(content)) {
+            IOUtils.copyLarge(in, out, offset, length, new byte[ChecksumUtil.BUFFER_SIZE]);
+        }
+    }
+
+    /**
+     * @return the store new payloads are written to
+     */
+    public ContentStore getDefaultStore() {
+        return defaultStore;
+    }
+
+    /**
+     * @param storedSize the number of bytes to store
+     * @return the pack store for small payloads when it is enabled, the default store otherwise
+     */
+    private ContentStore selectStore(long storedSize) {
+        if (packProperties.isEnabled() && storedSize <= packProperties.getMaxObjectSize()) {
+            return getStore(PackContentStore.NAME);
+        }
+        return defaultStore;
+    }
+
+    private ContentStore getStore(Content content) {
+        return getStore(content.getStore() != null ? content.getStore() : JpaContentStore.NAME);
+    }
+
+    private ContentStore getStore(String name) {
+        ContentStore store = stores.get(name);
+        if (store == null) {
+            throw new IllegalStateException("Unknown content store " + name + ", expected one of " + stores.keySet());
+        }
+        return store;
+    }
+
+    /**
+     * The number of contents deleted by {@link #releaseAll(List)}, and of stored bytes reclaimed.
+     */
+    public static final class Released {
+
+        private long count;
+
+        private long bytes;
+
+        private void add(long storedSize) {
+            count++;
+            bytes += storedSize;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package us.hennepin.mork.jhipster.application.service;
+
+import us.hennepin.mork.jhipster.application.config.ApplicationProperties;
+import us.hennepin.mork.jhipster.application.domain.Document;
+import us.hennepin.mork.jhipster.application.repository.ContentRepository;
+import us.hennepin.mork.jhipster.application.service.dto.DocumentContentDTO;
+import us.hennepin.mork.jhipster.application.service.store.ColdContentReadEvent;
+import us.hennepin.mork.jhipster.application.service.store.ColdContentStore;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.InstantType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service moving the payloads of idle documents to the {@link ColdContentStore}, and back when they are read.
+ * <p>
+ * Reads of a document content are recorded in {@code document.last_accessed_date}, at most once per
+ * {@link #ACCESS_RESOLUTION} so that reads do not turn into writes. A content is idle when none of the documents
+ * referencing it was read or modified for {@code application.storage.tiering.idle-days}; idle contents are moved
+ * nightly, deflated, in batches. The next read of a cold content is served from the cold store, and moves it back
+ * in the background. Moves are reported as the {@code content.tiering.*} metrics.
+ */
+@Service
+public class ContentTieringService {
+
+    static final Duration ACCESS_RESOLUTION = Duration.ofHours(6);
+
+    private static final String ACCESS_QUERY_SPACE = "document_access";
+
+    /**
+     * A native update, so it neither increments the version nor changes the last modified date, and declares a query
+     * space of its own so Hibernate does not evict the whole Document region of the second-level cache.
+     */
+    private static final String RECORD_ACCESS = "update document set last_accessed_date = :now where id = :id"
+        + " and (last_accessed_date is null or last_accessed_date < :since)";
+
+    private final Logger log = LoggerFactory.getLogger(ContentTieringService.class);
+
+    private final ContentRepository contentRepository;
+
+    private final ContentService contentService;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final EntityManager em;
+
+    private final ApplicationProperties.Storage.Tiering properties;
+
+    private final Counter demotedContents;
+
+    private final Counter promotedContents;
+
+    /**
+     * Contents being moved back from the cold store, so that concurrent reads move them once.
+     */
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    public ContentTieringService(ContentRepository contentRepository, ContentService contentService,
+            ApplicationEventPublisher applicationEventPublisher, EntityManager em, ApplicationProperties applicationProperties,
+            MeterRegistry meterRegistry) {
+        this.contentRepository = contentRepository;
+        this.contentService = contentService;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.em = em;
+        this.properties = applicationProperties.getStorage().getTiering();
+        this.demotedContents = meterRegistry.counter("content.tiering.demoted");
+        this.promotedContents = meterRegistry.counter("content.tiering.promoted");
+    }
+
+    /**
+     * Record a read of the content of a document, and move the content back from the cold store if it is there.
+     * <p>
+     * The resolution is checked against the projection read before updating the document, as the update evicts it
+     * from the second-level cache, when it runs and again once the transaction completes.
+     *
+     * @param document the document, with the metadata of its content
+     */
+    @Transactional
+    public void recordAccess(DocumentContentDTO document) {
+        Instant now = Instant.now();
+        Instant since = now.minus(ACCESS_RESOLUTION);
+        if (document.getLastAccessedDate() == null || document.getLastAccessedDate().isBefore(since)) {
+            Long documentId = document.getId();
+            evict(documentId);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(documentId);
+                }
+            });
+            NativeQuery<?> query = em.createNativeQuery(RECORD_ACCESS).unwrap(NativeQuery.class);
+            query.addSynchronizedQuerySpace(ACCESS_QUERY_SPACE);
+            query.setParameter("id", documentId)
+                .setParameter("now", now, InstantType.INSTANCE)
+                .setParameter("since", since, InstantType.INSTANCE)
+                .executeUpdate();
+        }
+        if (ColdContentStore.NAME.equals(document.getStore())) {
+            applicationEventPublisher.publishEvent(new ColdContentReadEvent(document.getContentId()));
+        }
+    }
+
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onColdContentRead(ColdContentReadEvent event) {
+        Long contentId = event.getContentId();
+        if (pending.add(contentId)) {
+            try {
+                if (contentService.promote(contentId)) {
+                    log.debug("Moved Content {} back from the cold store", contentId);
+                    promotedContents.increment();
+                }
+            } catch (IOException e) {
+                log.error("Could not move Content {} back from the cold store", contentId, e);
+            } finally {
+                pending.remove(contentId);
+            }
+        }
+    }
+
+    /**
+     * Move the payloads of the idle documents to the cold store.
+     * <p>
+     * This is scheduled to get fired everyday, at 02:00 (am), when {@code application.storage.tiering.enabled} is set.
+     */
+    @Scheduled(cron = "0 0 2 * * ?")
+    public void demoteIdleContents() {
+        if (properties.isEnabled()) {
+            demote();
+        }
+    }
+
+    /**
+     * Move the payloads of the idle documents to the cold store now.
+     *
+     * @return the number of contents moved
+     */
+    public int demote() {
+        Instant before = Instant.now().minus(Duration.ofDays(properties.getIdleDays()));
+        PageRequest batch = PageRequest.of(0, properties.getBatchSize());
+        long after = 0L;
+        int demoted = 0;
+        List<Long> ids;
+        while (!(ids = contentRepository.findIdleIdsNotInStore(ColdContentStore.NAME, before, after, batch)).isEmpty()) {
+            try {
+                int moved = contentService.demote(ids);
+                demoted += moved;
+                demotedContents.increment(moved);
+            } catch (RuntimeException e) {
+                log.error("Could not move Contents {} to the cold store", ids, e);
+            }
+            after = ids.get(ids.size() - 1);
+        }
+        if (demoted > 0) {
+            log.info("Moved {} idle Contents to the cold store", demoted);
+        }
+        return demoted;
+    }
+
+    private void evict(Long documentId) {
+        em.getEntityManagerFactory().getCache().evict(Document.class, documentId);
+    }
+}
@@ -0,0 +1,93 @@
+package us.hennepin.mork.jhipster.application.service;
+
+import us.hennepin.mork.jhipster.application.repository.DocumentRepository;
+import us.hennepin.mork.jhipster.application.service.dto.DocumentContentDTO;
+
+import org.apache.commons.io.FilenameUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Service writing the documents of a person as a ZIP archive.
+ * <p>
+ * The contents are copied one after the other into the archive, so it is written with a constant amount of memory
+ * whatever its size. Payloads of MIME types that are compressed already are not deflated again.
+ * <p>
+ * The documents are read as projections, and each content is copied in its own transaction, so no entity, nor
+ * payload, stays in a persistence context while the archive is written.
+ */
+@Service
+public class DocumentArchiveService {
+
+    /**
+     * Prefixes of the MIME types whose payloads are compressed already.
+     */
+    private static final List<String> COMPRESSED_MIME_TYPES = Arrays.asList(
+        "image/jpeg", "image/png", "image/gif", "image/webp", "video/", "audio/",
+        "application/zip", "application/gzip", "application/x-gzip", "application/x-7z-compressed", "application/x-rar-compressed",
+        "application/vnd.openxmlformats-officedocument.", "application/vnd.oasis.opendocument.");
+
+    private final Logger log = LoggerFactory.getLogger(DocumentArchiveService.class);
+
+    private final DocumentRepository documentRepository;
+
+    private final ContentService contentService;
+
+    public DocumentArchiveService(DocumentRepository documentRepository, ContentService contentService) {
+        this.documentRepository = documentRepository;
+        this.contentService = contentService;
+    }
+
+    /**
+     * Write the documents of a person as a ZIP archive.
+     *
+     * @param personId the id of the person
+     * @param out the stream to write the archive to, it is not closed
+     * @throws IOException if a content cannot be read or the stream cannot be written
+     */
+    public void writeZip(Long personId, OutputStream out) throws IOException {
+        List<DocumentContentDTO> documents = documentRepository.findAllContentsByPersonId(personId);
+        log.debug("Writing {} Documents of Person {} as a ZIP archive", documents.size(), personId);
+        ZipOutputStream zip = new ZipOutputStream(out);
+        Set<String> names = new HashSet<>();
+        for (DocumentContentDTO document : documents) {
+            // already compressed payloads are only framed, deflating them again would cost CPU for nothing
+            zip.setLevel(isCompressed(document.getMimeType()) ? Deflater.NO_COMPRESSION : Deflater.DEFAULT_COMPRESSION);
+            zip.putNextEntry(new ZipEntry(entryName(document, names)));
+            contentService.copy(document.getContentId(), 0, document.getSize(), zip);
+            zip.closeEntry();
+        }
+        zip.finish();
+    }
+
+    private static boolean isCompressed(String mimeType) {
+        return mimeType != null && COMPRESSED_MIME_TYPES.stream().anyMatch(mimeType::startsWith);
+    }
+
+    /**
+     * @return the title of the document, without path separators and made unique in the archive
+     */
+    private static String entryName(DocumentContentDTO document, Set<String> names) {
+        String title = document.getTitle() != null ? document.getTitle().replaceAll("[/\\\\]", "_") : "";
+        if (title.isEmpty()) {
+            title = "document-" + document.getId();
+        }
+        String name = title;
+        for (int i = 2; !names.add(name); i++) {
+            String extension = FilenameUtils.getExtension(title);
+            name = FilenameUtils.removeExtension(title) + " (" + i + ")" + (extension.isEmpty() ? "" : "." + extension);
+        }
+        return name;
+    }
+}
@@ -0,0 +1,271 @@
+package us.hennepin.mork.jhipster.application.service;
+
+import us.hennepin.mork.jhipster.application.domain.Content;
+import us.hennepin.mork.jhipster.application.domain.Document;
+import us.hennepin.mork.jhipster.application.repository.DocumentRepository;
+import us.hennepin.mork.jhipster.application.repository.search.DocumentSearchRepository;
+import us.hennepin.mork.jhipster.application.service.dto.DocumentBulkResultDTO;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service creating, updating and deleting many documents at once, for the migrations from other systems.
+ * <p>
+ * Items are processed in chunks of {@link #CHUNK_SIZE}, each in its own transaction, and every chunk is indexed in
+ * Elasticsearch with a single bulk request once committed. Items that are missing or stale are left out of their
+ * chunk, and a chunk that fails is processed again one item at a time, so a bad item only fails itself. Every item
+ * gets its own result, with the status it would have been answered with by the single-document endpoints.
+ */
+@Service
+public class DocumentBulkService {
+
+    static final int CHUNK_SIZE = 500;
+
+    private final Logger log = LoggerFactory.getLogger(DocumentBulkService.class);
+
+    private final DocumentRepository documentRepository;
+
+    private final DocumentSearchRepository documentSearchRepository;
+
+    private final DocumentIndexService documentIndexService;
+
+    private final PersonSummaryService personSummaryService;
+
+    private final ContentService contentService;
+
+    private final Validator validator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public DocumentBulkService(DocumentRepository documentRepository, DocumentSearchRepository documentSearchRepository,
+            DocumentIndexService documentIndexService, PersonSummaryService personSummaryService, ContentService contentService,
+            Validator validator, PlatformTransactionManager transactionManager) {
+        this.documentRepository = documentRepository;
+        this.documentSearchRepository = documentSearchRepository;
+        this.documentIndexService = documentIndexService;
+        this.personSummaryService = personSummaryService;
+        this.contentService = contentService;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Create documents.
+     *
+     * @param documents the documents to create, without ids
+     * @return the result of every document, in the same order, with status 201 (Created) and the new id, or with
+     * status 400 (Bad Request) if the document is not valid or has already an id
+     */
+    public List<DocumentBulkResultDTO> createAll(List<Document> documents) {
+        DocumentBulkResultDTO[] results = new DocumentBulkResultDTO[documents.size()];
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < documents.size(); i++) {
+            Document document = documents.get(i);
+            if (document.getId() != null) {
+                results[i] = failed(i, null, HttpStatus.BAD_REQUEST, "idexists");
+            } else if (!validator.validate(document).isEmpty()) {
+                results[i] = failed(i, null, HttpStatus.BAD_REQUEST, "invalid");
+            } else {
+                accepted.add(i);
+            }
+        }
+        inChunks(accepted, documents::get, results, (indices, chunk) -> {
+            // ids and versions may be left over from a failed chunk
+            chunk.forEach(document -> {
+                document.setId(null);
+                document.setVersion(null);
+            });
+            List<Document> created = documentRepository.saveAll(chunk);
+            documentRepository.flush();
+            created.stream()
+                .collect(Collectors.groupingBy(document -> document.getPerson().getId()))
+                .forEach(personSummaryService::documentsCreated);
+            return created;
+        }, documentIndexService::indexAll, HttpStatus.CREATED);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Update documents, keeping their contents.
+     *
+     * @param documents the documents to update, with their ids
+     * @return the result of every document, in the same order, with status 200 (OK), or with status 400 (Bad Request)
+     * if the document is not valid or has no id, or with status 404 (Not Found), or with status 409 (Conflict) if the
+     * document was updated since the version it holds was read
+     */
+    public List<DocumentBulkResultDTO> updateAll(List<Document> documents) {
+        DocumentBulkResultDTO[] results = new DocumentBulkResultDTO[documents.size()];
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < documents.size(); i++) {
+            Document document = documents.get(i);
+            if (document.getId() == null) {
+                results[i] = failed(i, null, HttpStatus.BAD_REQUEST, "idnull");
+            } else if (!validator.validate(document).isEmpty()) {
+                results[i] = failed(i, document.getId(), HttpStatus.BAD_REQUEST, "invalid");
+            } else {
+                accepted.add(i);
+            }
+        }
+        inChunks(accepted, documents::get, results, (indices, chunk) -> {
+            Map<Long, Document> existing = documentRepository.findAllById(chunk.stream().map(Document::getId).collect(Collectors.toList()))
+                .stream().collect(Collectors.toMap(Document::getId, Function.identity()));
+            List<Document> updated = new ArrayList<>();
+            for (int k = 0; k < chunk.size(); k++) {
+                Document document = chunk.get(k);
+                Document current = existing.get(document.getId());
+                if (current == null) {
+                    results[indices.get(k)] = failed(indices.get(k), document.getId(), HttpStatus.NOT_FOUND, "notfound");
+                    updated.add(null);
+                } else if (document.getVersion() != null && !document.getVersion().equals(current.getVersion())) {
+                    results[indices.get(k)] = failed(indices.get(k), document.getId(), HttpStatus.CONFLICT, "concurrency");
+                    updated.add(null);
+                } else {
+                    // the content is not part of the JSON representation, keep the one already referenced
+                    document.setContent(current.getContent());
+                    document.setVersion(current.getVersion());
+                    Long previousPersonId = current.getPerson().getId();
+                    Long previousSize = current.getSize();
+                    Document result = documentRepository.save(document);
+                    personSummaryService.documentUpdated(previousPersonId, previousSize, result);
+                    updated.add(result);
+                }
+            }
+            documentRepository.flush();
+            return updated;
+        }, documentIndexService::indexAll, HttpStatus.OK);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Delete documents, and the contents no other document references.
+     *
+     * @param ids the ids of the documents to delete
+     * @return the result of every document, in the same order, with status 200 (OK), or with status 404 (Not Found)
+     */
+    public List<DocumentBulkResultDTO> deleteAll(List<Long> ids) {
+        DocumentBulkResultDTO[] results = new DocumentBulkResultDTO[ids.size()];
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (ids.get(i) == null) {
+                results[i] = failed(i, null, HttpStatus.BAD_REQUEST, "idnull");
+            } else {
+                accepted.add(i);
+            }
+        }
+        inChunks(accepted, i -> reference(ids.get(i)), results, (indices, chunk) -> {
+            Map<Long, Document> existing = documentRepository.findAllById(chunk.stream().map(Document::getId).collect(Collectors.toList()))
+                .stream().collect(Collectors.toMap(Document::getId, Function.identity()));
+            List<Document> deleted = new ArrayList<>();
+            for (int k = 0; k < chunk.size(); k++) {
+                Document document = existing.remove(chunk.get(k).getId());
+                if (document == null) {
+                    // missing, or listed twice
+                    results[indices.get(k)] = failed(indices.get(k), chunk.get(k).getId(), HttpStatus.NOT_FOUND, "notfound");
+                }
+                deleted.add(document);
+            }
+            List<Document> found = deleted.stream().filter(Objects::nonNull).collect(Collectors.toList());
+            documentRepository.deleteAll(found);
+            documentRepository.flush();
+            personSummaryService.documentsDeleted(found);
+            contentService.releaseAll(found.stream().map(Document::getContent).filter(Objects::nonNull).map(Content::getId)
+                .distinct().collect(Collectors.toList()));
+            return deleted;
+        }, documentSearchRepository::deleteAll, HttpStatus.OK);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Apply an operation to the accepted items by chunks, each in its own transaction, then pass the documents it
+     * processed to {@code afterCommit}, and fill their results with {@code status}.
+     * <p>
+     * The operation returns the processed documents in the order of the chunk, with null for the items it left out
+     * after recording their results. When it throws, the items of the chunk are applied again one at a time.
+     */
+    private void inChunks(List<Integer> accepted, Function<Integer, Document> item, DocumentBulkResultDTO[] results,
+            ChunkOperation operation, Consumer<List<Document>> afterCommit, HttpStatus status) {
+        for (int from = 0; from < accepted.size(); from += CHUNK_SIZE) {
+            List<Integer> chunk = accepted.subList(from, Math.min(from + CHUNK_SIZE, accepted.size()));
+            // read before the operation, which assigns ids to the created documents even if their chunk fails
+            List<Long> ids = chunk.stream().map(index -> item.apply(index).getId()).collect(Collectors.toList());
+            try {
+                apply(chunk, item, results, operation, afterCommit, status);
+            } catch (RuntimeException e) {
+                log.debug("Bulk chunk of {} Documents failed, applying them one at a time: {}", chunk.size(), e.getMessage());
+                for (int k = 0; k < chunk.size(); k++) {
+                    try {
+                        apply(Collections.singletonList(chunk.get(k)), item, results, operation, afterCommit, status);
+                    } catch (RuntimeException itemException) {
+                        results[chunk.get(k)] = failed(chunk.get(k), ids.get(k), itemException);
+                    }
+                }
+            }
+        }
+    }
+
+    private void apply(List<Integer> indices, Function<Integer, Document> item, DocumentBulkResultDTO[] results,
+            ChunkOperation operation, Consumer<List<Document>> afterCommit, HttpStatus status) {
+        List<Document> documents = indices.stream().map(item).collect(Collectors.toList());
+        List<Document> processed = transactionTemplate.execute(transaction -> operation.apply(indices, documents));
+        for (int k = 0; k < indices.size(); k++) {
+            if (processed.get(k) != null) {
+                results[indices.get(k)] = new DocumentBulkResultDTO(indices.get(k), processed.get(k).getId(), status.value(), null);
+            }
+        }
+        List<Document> committed = processed.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        try {
+            afterCommit.accept(committed);
+        } catch (RuntimeException e) {
+            // the documents are committed, the index catches up on the next reindexing
+            log.error("Could not update the index of {} Documents", committed.size(), e);
+        }
+    }
+
+    private DocumentBulkResultDTO failed(int index, Long id, RuntimeException e) {
+        if (e instanceof ConcurrencyFailureException) {
+            return failed(index, id, HttpStatus.CONFLICT, "concurrency");
+        }
+        if (e instanceof DataIntegrityViolationException) {
+            return failed(index, id, HttpStatus.BAD_REQUEST, "constraint");
+        }
+        log.error("Bulk operation failed on Document {}", id, e);
+        return failed(index, id, HttpStatus.INTERNAL_SERVER_ERROR, "internal");
+    }
+
+    private static DocumentBulkResultDTO failed(int index, Long id, HttpStatus status, String error) {
+        return new DocumentBulkResultDTO(index, id, status.value(), error);
+    }
+
+    private static Document reference(Long id) {
+        Document document = new Document();
+        document.setId(id);
+        return document;
+    }
+
+    /**
+     * The work done on a chunk of documents in its transaction.
+     */
+    @FunctionalInterface
+    private interface ChunkOperation {
+
+        List<Document> apply(List<Integer> indices, List<Document> documents);
+    }
+}
@@ -0,0 +1,84 @@
+package us.hennepin.mork.jhipster.application.service;
+
+import us.hennepin.mork.jhipster.application.repository.DocumentRepository;
+import us.hennepin.mork.jhipster.application.service.dto.DocumentMetadataDTO;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Service exporting the metadata of every document as newline-delimited JSON.
+ * <p>
+ * Rows are read from a database cursor and written to the stream one at a time, so the export runs with a
+ * constant amount of memory whatever the number of documents. The rows are projected into DTOs rather than read
+ * as entities, so the persistence context stays empty and never has to be cleared.
+ */
+@Service
+@Transactional(readOnly = true)
+public class DocumentExportService {
+
+    public static final String NDJSON_MIME_TYPE = "application/x-ndjson";
+
+    /**
+     * Number of documents written between two flushes of the stream.
+     */
+    private static final int FLUSH_INTERVAL = 500;
+
+    private final Logger log = LoggerFactory.getLogger(DocumentExportService.class);
+
+    private final DocumentRepository documentRepository;
+
+    private final ObjectMapper objectMapper;
+
+    public DocumentExportService(DocumentRepository documentRepository, ObjectMapper objectMapper) {
+        this.documentRepository = documentRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Write the metadata of every document, one JSON object per line, in id order.
+     *
+     * @param out the stream to write to, it is not closed
+     * @return the number of documents written
+     * @throws IOException if the stream cannot be written
+     */
+    public long writeNdjson(OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<DocumentMetadataDTO> documents = documentRepository.streamAllMetadata();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            for (Iterator<DocumentMetadataDTO> it = documents.iterator(); it.hasNext(); ) {
+                write(generator, it.next());
+                if (++count % FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        log.debug("Exported {} Documents", count);
+        return count;
+    }
+
+    private static void write(JsonGenerator generator, DocumentMetadataDTO document) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", document.getId());
+        generator.writeStringField("title", document.getTitle());
+        generator.writeNumberField("size", document.getSize());
+        generator.writeStringField("mimeType", document.getMimeType());
+        if (document.getPersonId() != null) {
+            generator.writeNumberField("personId", document.getPersonId());
+        } else {
+            generator.writeNullField("personId");
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
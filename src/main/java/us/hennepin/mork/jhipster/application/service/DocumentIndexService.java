@@ -0,0 +1,133 @@
+package us.hennepin.mork.jhipster.application.service;
+
+import us.hennepin.mork.jhipster.application.domain.Content;
+import us.hennepin.mork.jhipster.application.domain.ContentText;
+import us.hennepin.mork.jhipster.application.domain.Document;
+import us.hennepin.mork.jhipster.application.repository.ContentTextRepository;
+import us.hennepin.mork.jhipster.application.repository.DocumentRepository;
+import us.hennepin.mork.jhipster.application.repository.search.DocumentSearchRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Service indexing documents in Elasticsearch, with the text extracted from their content.
+ */
+@Service
+@Transactional(readOnly = true)
+public class DocumentIndexService {
+
+    private final Logger log = LoggerFactory.getLogger(DocumentIndexService.class);
+
+    private final DocumentRepository documentRepository;
+
+    private final DocumentSearchRepository documentSearchRepository;
+
+    private final ContentTextRepository contentTextRepository;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    public DocumentIndexService(DocumentRepository documentRepository, DocumentSearchRepository documentSearchRepository,
+            ContentTextRepository contentTextRepository, ApplicationEventPublisher applicationEventPublisher) {
+        this.documentRepository = documentRepository;
+        this.documentSearchRepository = documentSearchRepository;
+        this.contentTextRepository = contentTextRepository;
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    /**
+     * Index a document, with the text of its content if it was extracted already.
+     *
+     * @param document the document to index
+     */
+    public void index(Document document) {
+        if (document.getContent() != null && document.getContent().getId() != null) {
+            document.setText(contentTextRepository.findById(document.getContent().getId()).map(ContentText::getText).orElse(null));
+        }
+        documentSearchRepository.save(document);
+    }
+
+    /**
+     * Index documents with a single bulk request, reading the texts of their contents with a single query.
+     *
+     * @param documents the documents to index
+     */
+    public void indexAll(List<Document> documents) {
+        if (documents.isEmpty()) {
+            return;
+        }
+        Map<Long, String> texts = findTexts(documents);
+        documents.forEach(document -> document.setText(document.getContent() != null ? texts.get(document.getContent().getId()) : null));
+        documentSearchRepository.saveAll(documents);
+    }
+
+    /**
+     * Index new documents attached to stored contents, and index them again once the transaction commits if their
+     * content has a text.
+     * <p>
+     * A content reused from other documents is not extracted again, and its text may be committed after this
+     * transaction read it, while the extraction does not see the documents of this transaction.
+     *
+     * @param documents the new documents
+     */
+    public void indexAttached(Collection<Document> documents) {
+        List<Document> attached = documents.stream().filter(document -> document.getContent() != null).collect(Collectors.toList());
+        indexAll(attached);
+        if (!attached.isEmpty()) {
+            applicationEventPublisher.publishEvent(
+                new DocumentsAttachedEvent(attached.stream().map(Document::getId).collect(Collectors.toList())));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onDocumentsAttached(DocumentsAttachedEvent event) {
+        List<Document> documents = documentRepository.findAllById(event.getDocumentIds());
+        Map<Long, String> texts = findTexts(documents);
+        List<Document> withText = documents.stream()
+            .filter(document -> document.getContent() != null && texts.containsKey(document.getContent().getId()))
+            .collect(Collectors.toList());
+        if (!withText.isEmpty()) {
+            log.debug("Request to index the text of attached Documents : {}", event.getDocumentIds());
+            withText.forEach(document -> document.setText(texts.get(document.getContent().getId())));
+            documentSearchRepository.saveAll(withText);
+        }
+    }
+
+    /**
+     * Index again all the documents referencing a content, once its text is extracted.
+     *
+     * @param contentId the id of the content
+     */
+    public void reindexContent(Long contentId) {
+        log.debug("Request to index the Documents of Content : {}", contentId);
+        documentRepository.findAllByContentId(contentId).forEach(this::index);
+    }
+
+    /**
+     * Read the texts of the contents of some documents with a single query, by content id.
+     */
+    private Map<Long, String> findTexts(List<Document> documents) {
+        List<Long> contentIds = documents.stream()
+            .map(Document::getContent)
+            .filter(Objects::nonNull)
+            .map(Content::getId)
+            .filter(Objects::nonNull)
+            .distinct()
+            .collect(Collectors.toList());
+        return contentTextRepository.findAllById(contentIds).stream()
+            .filter(contentText -> contentText.getText() != null)
+            .collect(Collectors.toMap(ContentText::getContentId, ContentText::getText));
+    }
+}
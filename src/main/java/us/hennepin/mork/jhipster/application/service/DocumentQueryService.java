@@ -0,0 +1,132 @@
+package us.hennepin.mork.jhipster.application.service;
+
+import us.hennepin.mork.jhipster.application.domain.Document;
+import us.hennepin.mork.jhipster.application.domain.Document_;
+import us.hennepin.mork.jhipster.application.domain.Person_;
+import us.hennepin.mork.jhipster.application.repository.DocumentRepository;
+import us.hennepin.mork.jhipster.application.service.dto.DocumentCriteria;
+import us.hennepin.mork.jhipster.application.service.dto.DocumentMetadataDTO;
+
+import io.github.jhipster.service.QueryService;
+import io.github.jhipster.service.filter.LongFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.List;
+
+/**
+ * Service for executing complex queries for {@link Document} entities in the database.
+ * The main input is a {@link DocumentCriteria} which gets converted to {@link Specification},
+ * in a way that all the filters must apply.
+ * It returns a {@link Page} of {@link DocumentMetadataDTO} which fulfills the criteria, read as projections so the
+ * entities are not loaded.
+ * <p>
+ * Every filter is on a column of the document table, the person being matched on its foreign key, so the common
+ * filters are answered by the indexes on {@code (person_id, id)}, {@code mime_type} and {@code title}.
+ */
+@Service
+@Transactional(readOnly = true)
+public class DocumentQueryService extends QueryService<Document> {
+
+    private final Logger log = LoggerFactory.getLogger(DocumentQueryService.class);
+
+    private final DocumentRepository documentRepository;
+
+    private final EntityManager em;
+
+    public DocumentQueryService(DocumentRepository documentRepository, EntityManager em) {
+        this.documentRepository = documentRepository;
+        this.em = em;
+    }
+
+    /**
+     * Return a {@link Page} of {@link DocumentMetadataDTO} which matches the criteria from the database
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @return the matching entities.
+     */
+    public Page<DocumentMetadataDTO> findByCriteria(DocumentCriteria criteria, Pageable page) {
+        log.debug("find by criteria : {}, page: {}", criteria, page);
+        final Specification<Document> specification = createSpecification(criteria);
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<DocumentMetadataDTO> query = cb.createQuery(DocumentMetadataDTO.class);
+        Root<Document> root = query.from(Document.class);
+        query.select(cb.construct(DocumentMetadataDTO.class, root.get(Document_.id), root.get(Document_.title),
+            root.get(Document_.size), root.get(Document_.mimeType), root.get(Document_.version),
+            root.get(Document_.lastModifiedDate), root.get(Document_.person).get(Person_.id)));
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(page.getSort(), root, cb));
+        List<DocumentMetadataDTO> content = em.createQuery(query)
+            .setFirstResult((int) page.getOffset())
+            .setMaxResults(page.getPageSize())
+            .getResultList();
+        return PageableExecutionUtils.getPage(content, page, () -> documentRepository.count(specification));
+    }
+
+    /**
+     * Function to convert DocumentCriteria to a {@link Specification}
+     */
+    private Specification<Document> createSpecification(DocumentCriteria criteria) {
+        Specification<Document> specification = Specification.where(null);
+        if (criteria != null) {
+            if (criteria.getPersonId() != null) {
+                specification = specification.and(buildPersonIdSpecification(criteria.getPersonId()));
+            }
+            if (criteria.getMimeType() != null) {
+                specification = specification.and(buildStringSpecification(criteria.getMimeType(), Document_.mimeType));
+            }
+            if (criteria.getSize() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getSize(), Document_.size));
+            }
+            if (criteria.getTitle() != null) {
+                specification = specification.and(buildStringSpecification(criteria.getTitle(), Document_.title));
+                if (criteria.getTitle().getStartsWith() != null) {
+                    specification = specification.and(startsWith(criteria.getTitle().getStartsWith()));
+                }
+            }
+            if (criteria.getLastModifiedDate() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getLastModifiedDate(), Document_.lastModifiedDate));
+            }
+        }
+        return specification;
+    }
+
+    /**
+     * Match the person on the foreign key of the document, {@code buildReferringEntitySpecification} would join the
+     * person table.
+     */
+    private Specification<Document> buildPersonIdSpecification(LongFilter filter) {
+        return (root, query, cb) -> {
+            Path<Long> personId = root.get(Document_.person).get(Person_.id);
+            if (filter.getEquals() != null) {
+                return cb.equal(personId, filter.getEquals());
+            } else if (filter.getIn() != null) {
+                return personId.in(filter.getIn());
+            } else if (filter.getSpecified() != null) {
+                return filter.getSpecified() ? cb.isNotNull(personId) : cb.isNull(personId);
+            }
+            return null;
+        };
+    }
+
+    private Specification<Document> startsWith(String prefix) {
+        String pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(root.get(Document_.title), pattern, '\\');
+    }
+}
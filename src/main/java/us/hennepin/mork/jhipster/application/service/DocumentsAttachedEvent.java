@@ -0,0 +1,26 @@
+package us.hennepin.mork.jhipster.application.service;
+
+import java.util.List;
+
+/**
+ * Published when new documents are attached to their contents, listeners are notified once the transaction commits.
+ */
+public class DocumentsAttachedEvent {
+
+    private final List<Long> documentIds;
+
+    public DocumentsAttachedEvent(List<Long> documentIds) {
+        this.documentIds = documentIds;
+    }
+
+    public List<Long> getDocumentIds() {
+        return documentIds;
+    }
+
+    @Override
+    public String toString() {
+        return "DocumentsAttachedEvent{" +
+            "documentIds=" + documentIds +
+            "}";
+    }
+}
@@ -0,0 +1,237 @@
+package us.hennepin.mork.jhipster.application.service;
+
+import us.hennepin.mork.jhipster.application.domain.Document;
+import us.hennepin.mork.jhipster.application.domain.Person;
+import us.hennepin.mork.jhipster.application.repository.PersonRepository;
+import us.hennepin.mork.jhipster.application.service.dto.PersonSummaryDTO;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.InstantType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service maintaining the number, total size and last upload time of the documents of every person.
+ * <p>
+ * The aggregates are stored on the person and updated with relative increments in the transaction that creates,
+ * updates or deletes a document, so concurrent changes to the documents of a person do not overwrite each other.
+ * Changes made outside of this service make them drift; they are recomputed nightly from the documents, in batches,
+ * and repairs are reported as the {@code person.summary.repaired} metric.
+ * <p>
+ * The increments are native updates declaring a query space of their own, so Hibernate does not evict the whole
+ * Person region of the second-level cache as it does for bulk updates of an entity; only the cached person updated
+ * is evicted, when the update runs and again once the transaction completes.
+ */
+@Service
+public class PersonSummaryService {
+
+    static final int BATCH_SIZE = 100;
+
+    private static final String SUMMARY_QUERY_SPACE = "person_summary";
+
+    private static final String ADD_TO_SUMMARY = "update person set document_count = document_count + :count,"
+        + " document_size = document_size + :size where id = :id";
+
+    private static final String RECORD_UPLOAD = "update person set last_upload_date = :date where id = :id"
+        + " and (last_upload_date is null or last_upload_date < :date)";
+
+    private final Logger log = LoggerFactory.getLogger(PersonSummaryService.class);
+
+    private final PersonRepository personRepository;
+
+    private final EntityManager em;
+
+    private final Counter repairedSummaries;
+
+    public PersonSummaryService(PersonRepository personRepository, EntityManager em, MeterRegistry meterRegistry) {
+        this.personRepository = personRepository;
+        this.em = em;
+        this.repairedSummaries = meterRegistry.counter("person.summary.repaired");
+    }
+
+    /**
+     * Add a new document to the aggregates of its person.
+     *
+     * @param document the created document
+     */
+    @Transactional
+    public void documentCreated(Document document) {
+        Long personId = document.getPerson().getId();
+        addToSummary(personId, 1, size(document));
+        recordUpload(personId, Instant.now());
+    }
+
+    /**
+     * Add the documents created with a person to its aggregates.
+     *
+     * @param personId the id of the person
+     * @param documents the created documents, may be null
+     */
+    @Transactional
+    public void documentsCreated(Long personId, Collection<Document> documents) {
+        if (documents == null || documents.isEmpty()) {
+            return;
+        }
+        addToSummary(personId, documents.size(), documents.stream().mapToLong(PersonSummaryService::size).sum());
+        recordUpload(personId, Instant.now());
+    }
+
+    /**
+     * Move an updated document in the aggregates, from its previous person and size to its current ones.
+     *
+     * @param previousPersonId the id of the person of the document before the update
+     * @param previousSize the size of the document before the update
+     * @param document the updated document
+     */
+    @Transactional
+    public void documentUpdated(Long previousPersonId, Long previousSize, Document document) {
+        Long personId = document.getPerson().getId();
+        long oldSize = previousSize != null ? previousSize : 0L;
+        if (personId.equals(previousPersonId)) {
+            if (size(document) != oldSize) {
+                addToSummary(personId, 0, size(document) - oldSize);
+            }
+        } else {
+            addToSummary(previousPersonId, -1, -oldSize);
+            addToSummary(personId, 1, size(document));
+        }
+    }
+
+    /**
+     * Remove a deleted document from the aggregates of its person.
+     *
+     * @param document the deleted document
+     */
+    @Transactional
+    public void documentDeleted(Document document) {
+        addToSummary(document.getPerson().getId(), -1, -size(document));
+    }
+
+    /**
+     * Remove deleted documents from the aggregates of their people, with one update per person.
+     *
+     * @param documents the deleted documents
+     */
+    @Transactional
+    public void documentsDeleted(Collection<Document> documents) {
+        documents.stream()
+            .collect(Collectors.groupingBy(document -> document.getPerson().getId()))
+            .forEach((personId, deleted) -> addToSummary(personId, -deleted.size(),
+                -deleted.stream().mapToLong(PersonSummaryService::size).sum()));
+    }
+
+    /**
+     * Recompute the aggregates that drifted from the documents.
+     * <p>
+     * This is scheduled to get fired everyday, at 05:00 (am).
+     */
+    @Scheduled(cron = "0 0 5 * * ?")
+    public void reconcileSummaries() {
+        int repaired = reconcile();
+        if (repaired > 0) {
+            log.warn("Repaired the document aggregates of {} People", repaired);
+        }
+    }
+
+    /**
+     * Recompute the aggregates that drifted from the documents now.
+     * <p>
+     * The stored aggregates of a batch are read before the documents, and only replaced if they are unchanged, so
+     * documents changed during the reconciliation are not counted twice; they are checked again on the next run.
+     *
+     * @return the number of people whose aggregates were repaired
+     */
+    public int reconcile() {
+        PageRequest batch = PageRequest.of(0, BATCH_SIZE);
+        long after = 0L;
+        int repaired = 0;
+        List<PersonSummaryDTO> stored;
+        while (!(stored = personRepository.findSummariesAfter(after, batch)).isEmpty()) {
+            Map<Long, PersonSummaryDTO> computed = personRepository.computeSummaries(stored.stream().map(PersonSummaryDTO::getId).collect(Collectors.toList()))
+                .stream().collect(Collectors.toMap(PersonSummaryDTO::getId, Function.identity()));
+            for (PersonSummaryDTO summary : stored) {
+                PersonSummaryDTO actual = computed.get(summary.getId());
+                if (actual != null && drifted(summary, actual)) {
+                    Instant lastUploadDate = summary.getLastUploadDate() != null ? summary.getLastUploadDate() : actual.getLastUploadDate();
+                    if (personRepository.replaceSummary(summary.getId(), summary.getDocumentCount(), summary.getDocumentSize(),
+                            actual.getDocumentCount(), actual.getDocumentSize(), lastUploadDate) > 0) {
+                        log.debug("Repaired the document aggregates of Person {}, from {} to {}", summary.getId(), summary, actual);
+                        repairedSummaries.increment();
+                        repaired++;
+                    }
+                }
+            }
+            after = stored.get(stored.size() - 1).getId();
+        }
+        return repaired;
+    }
+
+    /**
+     * The last upload time is not derived from the documents, as deleting the latest one does not undo the upload;
+     * it is only filled when missing.
+     */
+    private static boolean drifted(PersonSummaryDTO stored, PersonSummaryDTO actual) {
+        return stored.getDocumentCount() != actual.getDocumentCount()
+            || stored.getDocumentSize() != actual.getDocumentSize()
+            || (stored.getLastUploadDate() == null && actual.getLastUploadDate() != null);
+    }
+
+    /**
+     * Add documents to the aggregates of a person, or remove them with negative values.
+     */
+    private void addToSummary(Long personId, long count, long size) {
+        update(personId, ADD_TO_SUMMARY)
+            .setParameter("count", count)
+            .setParameter("size", size)
+            .executeUpdate();
+    }
+
+    private void recordUpload(Long personId, Instant date) {
+        update(personId, RECORD_UPLOAD)
+            .setParameter("date", date, InstantType.INSTANCE)
+            .executeUpdate();
+    }
+
+    /**
+     * Create a native update of the aggregates of a person, once the pending changes are flushed as the person may
+     * have been persisted in this transaction, and evict the person from the second-level cache.
+     */
+    private NativeQuery<?> update(Long personId, String sql) {
+        em.flush();
+        evict(personId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                evict(personId);
+            }
+        });
+        NativeQuery<?> query = em.createNativeQuery(sql).unwrap(NativeQuery.class);
+        query.addSynchronizedQuerySpace(SUMMARY_QUERY_SPACE);
+        query.setParameter("id", personId);
+        return query;
+    }
+
+    private void evict(Long personId) {
+        em.getEntityManagerFactory().getCache().evict(Person.class, personId);
+    }
+
+    private static long size(Document document) {
+        return document.getSize() != null ? document.getSize() : 0L;
+    }
+}
@@ -0,0 +1,182 @@
+package us.hennepin.mork.jhipster.application.service;
+
+import us.hennepin.mork.jhipster.application.config.ApplicationProperties;
+import us.hennepin.mork.jhipster.application.domain.Content;
+import us.hennepin.mork.jhipster.application.domain.Thumbnail;
+import us.hennepin.mork.jhipster.application.repository.ContentRepository;
+import us.hennepin.mork.jhipster.application.repository.ThumbnailRepository;
+import us.hennepin.mork.jhipster.application.service.rendition.ThumbnailRenderer;
+import us.hennepin.mork.jhipster.application.service.store.ContentStoredEvent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service rendering the thumbnails of the stored payloads.
+ * <p>
+ * Thumbnails are rendered in the background once the payload is committed, and kept once per content; the one of
+ * a previous payload is dropped when a payload is stored again. Contents stored before thumbnails existed get
+ * theirs the first time one is requested.
+ */
+@Service
+public class RenditionService {
+
+    public static final String THUMBNAIL_MIME_TYPE = MediaType.IMAGE_JPEG_VALUE;
+
+    private final Logger log = LoggerFactory.getLogger(RenditionService.class);
+
+    private final ContentRepository contentRepository;
+
+    private final ThumbnailRepository thumbnailRepository;
+
+    private final ContentService contentService;
+
+    private final List<ThumbnailRenderer> renderers;
+
+    private final ApplicationProperties.Rendition properties;
+
+    /**
+     * Contents whose thumbnail is being rendered on request, so that concurrent requests render it once.
+     */
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    public RenditionService(ContentRepository contentRepository, ThumbnailRepository thumbnailRepository, ContentService contentService,
+            List<ThumbnailRenderer> renderers, ApplicationProperties applicationProperties) {
+        this.contentRepository = contentRepository;
+        this.thumbnailRepository = thumbnailRepository;
+        this.contentService = contentService;
+        this.renderers = renderers;
+        this.properties = applicationProperties.getRendition();
+    }
+
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onContentStored(ContentStoredEvent event) {
+        // a thumbnail rendered from a previous payload of the content is stale
+        if (thumbnailRepository.existsById(event.getContentId())) {
+            log.debug("Dropping the thumbnail of Content {}, its payload was stored again", event.getContentId());
+            thumbnailRepository.deleteById(event.getContentId());
+            thumbnailRepository.flush();
+        }
+        if (properties.isEnabled()) {
+            renderThumbnail(event.getContentId());
+        }
+    }
+
+    /**
+     * Render the thumbnail of a content in the background, unless it is being rendered already.
+     *
+     * @param contentId the id of the content
+     */
+    @Async
+    @Transactional
+    public void requestThumbnail(Long contentId) {
+        if (properties.isEnabled() && pending.add(contentId)) {
+            try {
+                renderThumbnail(contentId);
+            } finally {
+                pending.remove(contentId);
+            }
+        }
+    }
+
+    /**
+     * Get the thumbnail of a content.
+     *
+     * @param contentId the id of the content
+     * @return the thumbnail, empty if it is not rendered
+     */
+    @Transactional(readOnly = true)
+    public Optional<Thumbnail> findThumbnail(Long contentId) {
+        return thumbnailRepository.findById(contentId);
+    }
+
+    /**
+     * Render the thumbnail of a content, if it has none yet.
+     *
+     * @param contentId the id of the content
+     * @return the thumbnail, empty if the content cannot be previewed
+     */
+    @Transactional
+    public Optional<Thumbnail> renderThumbnail(Long contentId) {
+        Optional<Thumbnail> existing = thumbnailRepository.findById(contentId);
+        if (existing.isPresent()) {
+            return existing;
+        }
+        Optional<Content> content = contentRepository.findById(contentId);
+        if (!content.isPresent() || content.get().getSize() == null || content.get().getSize() > properties.getMaxSize()) {
+            return Optional.empty();
+        }
+        String mimeType = content.get().getDataContentType();
+        Optional<ThumbnailRenderer> renderer = renderers.stream().filter(r -> r.supports(mimeType)).findFirst();
+        if (!renderer.isPresent()) {
+            return Optional.empty();
+        }
+        BufferedImage image;
+        try (InputStream in = contentService.open(content.get())) {
+            image = renderer.get().render(in, properties.getSize());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not render the thumbnail of Content {} of type {}: {}", contentId, mimeType, e.getMessage());
+            return Optional.empty();
+        }
+        if (image == null) {
+            return Optional.empty();
+        }
+        BufferedImage thumbnail = scale(image, properties.getSize());
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(thumbnail, "jpg", data);
+        } catch (IOException e) {
+            log.warn("Could not encode the thumbnail of Content {}: {}", contentId, e.getMessage());
+            return Optional.empty();
+        }
+        log.debug("Rendered a {}x{} thumbnail of Content {}", thumbnail.getWidth(), thumbnail.getHeight(), contentId);
+        return Optional.of(thumbnailRepository.save(new Thumbnail()
+            .contentId(contentId)
+            .data(data.toByteArray())
+            .mimeType(THUMBNAIL_MIME_TYPE)
+            .width(thumbnail.getWidth())
+            .height(thumbnail.getHeight())
+            .createdDate(Instant.now())));
+    }
+
+    /**
+     * Scale an image down to fit in a square, on a white background as JPEG has no transparency.
+     */
+    private static BufferedImage scale(BufferedImage image, int size) {
+        double ratio = Math.min(1.0, (double) size / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+}
@@ -0,0 +1,97 @@
+package us.hennepin.mork.jhipster.application.service;
+
+import us.hennepin.mork.jhipster.application.config.ApplicationProperties;
+import us.hennepin.mork.jhipster.application.domain.Content;
+import us.hennepin.mork.jhipster.application.domain.ContentText;
+import us.hennepin.mork.jhipster.application.repository.ContentRepository;
+import us.hennepin.mork.jhipster.application.repository.ContentTextRepository;
+import us.hennepin.mork.jhipster.application.service.store.ContentStoredEvent;
+import us.hennepin.mork.jhipster.application.service.text.TextExtractor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service extracting the text of the stored payloads, for full-text search.
+ * <p>
+ * The text is extracted in the background once the payload is committed, so uploads do not wait for it.
+ * It is kept once per content, and indexed with every document referencing the content.
+ */
+@Service
+public class TextExtractionService {
+
+    private final Logger log = LoggerFactory.getLogger(TextExtractionService.class);
+
+    private final ContentRepository contentRepository;
+
+    private final ContentTextRepository contentTextRepository;
+
+    private final ContentService contentService;
+
+    private final DocumentIndexService documentIndexService;
+
+    private final List<TextExtractor> extractors;
+
+    private final ApplicationProperties.TextExtraction properties;
+
+    public TextExtractionService(ContentRepository contentRepository, ContentTextRepository contentTextRepository,
+            ContentService contentService, DocumentIndexService documentIndexService, List<TextExtractor> extractors,
+            ApplicationProperties applicationProperties) {
+        this.contentRepository = contentRepository;
+        this.contentTextRepository = contentTextRepository;
+        this.contentService = contentService;
+        this.documentIndexService = documentIndexService;
+        this.extractors = extractors;
+        this.properties = applicationProperties.getTextExtraction();
+    }
+
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onContentStored(ContentStoredEvent event) {
+        if (properties.isEnabled()) {
+            extract(event.getContentId());
+        }
+    }
+
+    /**
+     * Extract the text of a content, and index it with the documents referencing the content.
+     *
+     * @param contentId the id of the content
+     * @return the extracted text, empty if the content has no text or could not be read
+     */
+    @Transactional
+    public Optional<String> extract(Long contentId) {
+        Optional<Content> content = contentRepository.findById(contentId);
+        if (!content.isPresent() || content.get().getSize() == null || content.get().getSize() > properties.getMaxSize()) {
+            return Optional.empty();
+        }
+        String mimeType = content.get().getDataContentType();
+        Optional<TextExtractor> extractor = extractors.stream().filter(e -> e.supports(mimeType)).findFirst();
+        if (!extractor.isPresent()) {
+            return Optional.empty();
+        }
+        String text;
+        try (InputStream in = contentService.open(content.get())) {
+            text = extractor.get().extract(in, mimeType, properties.getMaxLength());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not extract the text of Content {} of type {}: {}", contentId, mimeType, e.getMessage());
+            return Optional.empty();
+        }
+        log.debug("Extracted {} characters from Content {}", text.length(), contentId);
+        contentTextRepository.save(new ContentText().contentId(contentId).text(text).extractedDate(Instant.now()));
+        documentIndexService.reindexContent(contentId);
+        return Optional.of(text);
+    }
+}
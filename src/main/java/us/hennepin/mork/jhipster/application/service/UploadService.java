@@ -0,0 +1,205 @@
+package us.hennepin.mork.jhipster.application.service;
+
+import us.hennepin.mork.jhipster.application.config.ApplicationProperties;
+import us.hennepin.mork.jhipster.application.domain.Content;
+import us.hennepin.mork.jhipster.application.domain.Document;
+import us.hennepin.mork.jhipster.application.domain.UploadSession;
+import us.hennepin.mork.jhipster.application.repository.DocumentRepository;
+import us.hennepin.mork.jhipster.application.repository.UploadSessionRepository;
+import us.hennepin.mork.jhipster.application.web.rest.errors.BadRequestAlertException;
+import us.hennepin.mork.jhipster.application.web.rest.errors.UploadOffsetConflictException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.Optional;
+
+/**
+ * Service class for resumable uploads.
+ * <p>
+ * The chunks of an upload are written at their offset in a file of {@code application.storage.upload.directory}
+ * as they arrive, and flushed to disk before their reception is acknowledged. Completing the upload streams
+ * that file into a Content, once its checksum is verified, and creates the Document.
+ */
+@Service
+@Transactional
+public class UploadService {
+
+    private static final String ENTITY_NAME = "uploadSession";
+
+    private final Logger log = LoggerFactory.getLogger(UploadService.class);
+
+    private final UploadSessionRepository uploadSessionRepository;
+
+    private final DocumentRepository documentRepository;
+
+    private final DocumentIndexService documentIndexService;
+
+    private final ContentService contentService;
+
+    private final PersonSummaryService personSummaryService;
+
+    private final ApplicationProperties.Storage.Upload properties;
+
+    private final Path directory;
+
+    public UploadService(UploadSessionRepository uploadSessionRepository, DocumentRepository documentRepository,
+            DocumentIndexService documentIndexService, ContentService contentService, PersonSummaryService personSummaryService,
+            ApplicationProperties applicationProperties) {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.documentRepository = documentRepository;
+        this.documentIndexService = documentIndexService;
+        this.contentService = contentService;
+        this.personSummaryService = personSummaryService;
+        this.properties = applicationProperties.getStorage().getUpload();
+        this.directory = Paths.get(properties.getDirectory()).toAbsolutePath();
+    }
+
+    /**
+     * Start a resumable upload.
+     *
+     * @param uploadSession the upload to start
+     * @return the started upload
+     * @throws IOException if the upload file cannot be created
+     */
+    public UploadSession create(UploadSession uploadSession) throws IOException {
+        uploadSession.setReceived(0L);
+        uploadSession.setCreatedDate(Instant.now());
+        UploadSession result = uploadSessionRepository.save(uploadSession);
+        Files.createDirectories(directory);
+        Files.deleteIfExists(file(result));
+        Files.createFile(file(result));
+        log.debug("Created upload session: {}", result);
+        return result;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<UploadSession> findOne(Long id) {
+        return uploadSessionRepository.findById(id);
+    }
+
+    /**
+     * Write a chunk of an upload.
+     *
+     * @param uploadSession the upload
+     * @param offset the offset of the chunk, which must be the number of bytes received so far
+     * @param in the chunk
+     * @return the upload, with its new offset
+     * @throws IOException if the chunk cannot be read or written
+     * @throws UploadOffsetConflictException if the chunk does not start at the expected offset
+     */
+    public UploadSession append(UploadSession uploadSession, long offset, InputStream in) throws IOException {
+        // claims the offset before writing: a concurrent chunk of the upload waits for this one, then conflicts
+        UploadSession current = uploadSessionRepository.findLockedById(uploadSession.getId())
+            .orElseThrow(() -> new BadRequestAlertException("Upload was aborted", ENTITY_NAME, "aborted"));
+        if (offset != current.getReceived()) {
+            throw new UploadOffsetConflictException(current.getReceived());
+        }
+        long remaining = current.getSize() - offset;
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(file(current), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            ReadableByteChannel src = Channels.newChannel(in);
+            long transferred;
+            while (written < remaining && (transferred = channel.transferFrom(src, offset + written, remaining - written)) > 0) {
+                written += transferred;
+            }
+            if (written == remaining && in.read() != -1) {
+                throw new BadRequestAlertException("Chunk exceeds the size of the upload", ENTITY_NAME, "chunktoolarge");
+            }
+            channel.force(false);
+        }
+        log.debug("Received {} bytes at offset {} for upload session {}", written, offset, current.getId());
+        return uploadSessionRepository.saveAndFlush(current.received(offset + written));
+    }
+
+    /**
+     * Turn a fully received upload into a Document.
+     *
+     * @param uploadSession the upload
+     * @return the created document
+     * @throws IOException if the upload cannot be read
+     * @throws BadRequestAlertException if the upload is incomplete or does not match its checksum
+     */
+    public Document complete(UploadSession uploadSession) throws IOException {
+        if (!uploadSession.getReceived().equals(uploadSession.getSize())) {
+            throw new BadRequestAlertException("Upload is incomplete, " + uploadSession.getReceived() + " of " +
+                uploadSession.getSize() + " bytes received", ENTITY_NAME, "incomplete");
+        }
+        Path file = file(uploadSession);
+        Content content = contentService.store(new FileSystemResource(file.toFile()), uploadSession.getMimeType(), uploadSession.getChecksum());
+        // the MIME type resolved for the payload, which may differ from the declared one
+        Document document = new Document()
+            .title(uploadSession.getTitle())
+            .size(content.getSize())
+            .mimeType(content.getDataContentType())
+            .person(uploadSession.getPerson());
+        document.setContent(content);
+        Document result = documentRepository.save(document);
+        personSummaryService.documentCreated(result);
+        documentIndexService.indexAttached(Collections.singletonList(result));
+        uploadSessionRepository.delete(uploadSession);
+        deleteAfterCommit(file);
+        log.debug("Completed upload session {} into Document {}", uploadSession.getId(), result.getId());
+        return result;
+    }
+
+    /**
+     * Abort an upload, dropping the chunks received so far.
+     *
+     * @param uploadSession the upload
+     */
+    public void abort(UploadSession uploadSession) {
+        uploadSessionRepository.delete(uploadSession);
+        deleteAfterCommit(file(uploadSession));
+    }
+
+    /**
+     * Uploads that were not completed in time are aborted.
+     * <p>
+     * This is scheduled to get fired everyday, at 02:00 (am).
+     */
+    @Scheduled(cron = "0 0 2 * * ?")
+    public void removeExpiredUploads() {
+        uploadSessionRepository
+            .findAllByCreatedDateBefore(Instant.now().minus(properties.getExpirationHours(), ChronoUnit.HOURS))
+            .forEach(uploadSession -> {
+                log.debug("Deleting expired upload session {}", uploadSession.getId());
+                abort(uploadSession);
+            });
+    }
+
+    private Path file(UploadSession uploadSession) {
+        return directory.resolve("upload-" + uploadSession.getId());
+    }
+
+    private void deleteAfterCommit(Path file) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("Could not delete {}", file, e);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,92 @@
+package us.hennepin.mork.jhipster.application.service.dto;
+
+/**
+ * A DTO representing the metadata of a content, without its payload.
+ */
+public class ContentSummaryDTO {
+
+    private Long id;
+
+    private String dataContentType;
+
+    private String checksum;
+
+    private Long size;
+
+    private Long storedSize;
+
+    private String store;
+
+    public ContentSummaryDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public ContentSummaryDTO(Long id, String dataContentType, String checksum, Long size, Long storedSize, String store) {
+        this.id = id;
+        this.dataContentType = dataContentType;
+        this.checksum = checksum;
+        this.size = size;
+        this.storedSize = storedSize;
+        this.store = store;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getDataContentType() {
+        return dataContentType;
+    }
+
+    public void setDataContentType(String dataContentType) {
+        this.dataContentType = dataContentType;
+    }
+
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public void setChecksum(String checksum) {
+        this.checksum = checksum;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    public Long getStoredSize() {
+        return storedSize;
+    }
+
+    public void setStoredSize(Long storedSize) {
+        this.storedSize = storedSize;
+    }
+
+    public String getStore() {
+        return store;
+    }
+
+    public void setStore(String store) {
+        this.store = store;
+    }
+
+    @Override
+    public String toString() {
+        return "ContentSummaryDTO{" +
+            "id=" + id +
+            ", dataContentType='" + dataContentType + "'" +
+            ", checksum='" + checksum + "'" +
+            ", size=" + size +
+            ", storedSize=" + storedSize +
+            ", store='" + store + "'" +
+            "}";
+    }
+}
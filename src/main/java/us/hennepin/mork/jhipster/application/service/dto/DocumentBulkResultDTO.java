@@ -0,0 +1,77 @@
+package us.hennepin.mork.jhipster.application.service.dto;
+
+/**
+ * A DTO representing the outcome of one item of a bulk request on documents.
+ */
+public class DocumentBulkResultDTO {
+
+    private int index;
+
+    private Long id;
+
+    private int status;
+
+    private String error;
+
+    public DocumentBulkResultDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public DocumentBulkResultDTO(int index, Long id, int status, String error) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.error = error;
+    }
+
+    /**
+     * @return the position of the item in the request
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * @return the HTTP status the item would have been answered with on its own
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    /**
+     * @return the error key of a failed item, null when it succeeded
+     */
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "DocumentBulkResultDTO{" +
+            "index=" + index +
+            ", id=" + id +
+            ", status=" + status +
+            ", error='" + error + "'" +
+            "}";
+    }
+}
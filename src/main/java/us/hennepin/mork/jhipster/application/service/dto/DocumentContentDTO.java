@@ -0,0 +1,91 @@
+package us.hennepin.mork.jhipster.application.service.dto;
+
+import java.time.Instant;
+
+/**
+ * A DTO representing a document with the metadata of its content, read as a projection so that neither entity, nor
+ * the payload of the content, is loaded.
+ * <p>
+ * The size is the one of the content, the size of the document being metadata which clients can edit.
+ */
+public class DocumentContentDTO {
+
+    private Long id;
+
+    private String title;
+
+    private String mimeType;
+
+    private Instant lastModifiedDate;
+
+    private Instant lastAccessedDate;
+
+    private Long contentId;
+
+    private String checksum;
+
+    private Long size;
+
+    private String store;
+
+    public DocumentContentDTO(Long id, String title, String mimeType, Instant lastModifiedDate, Instant lastAccessedDate,
+            Long contentId, String checksum, Long size, String store) {
+        this.id = id;
+        this.title = title;
+        this.mimeType = mimeType;
+        this.lastModifiedDate = lastModifiedDate;
+        this.lastAccessedDate = lastAccessedDate;
+        this.contentId = contentId;
+        this.checksum = checksum;
+        this.size = size;
+        this.store = store;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    public Instant getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    public Instant getLastAccessedDate() {
+        return lastAccessedDate;
+    }
+
+    public Long getContentId() {
+        return contentId;
+    }
+
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public String getStore() {
+        return store;
+    }
+
+    @Override
+    public String toString() {
+        return "DocumentContentDTO{" +
+            "id=" + getId() +
+            ", title='" + getTitle() + "'" +
+            ", mimeType='" + getMimeType() + "'" +
+            ", contentId=" + getContentId() +
+            ", size=" + getSize() +
+            ", store='" + getStore() + "'" +
+            "}";
+    }
+}
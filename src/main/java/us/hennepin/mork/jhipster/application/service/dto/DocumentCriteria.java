@@ -0,0 +1,157 @@
+package us.hennepin.mork.jhipster.application.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import io.github.jhipster.service.filter.InstantFilter;
+import io.github.jhipster.service.filter.LongFilter;
+import io.github.jhipster.service.filter.StringFilter;
+
+/**
+ * Criteria class for the Document entity. This class is used in DocumentResource to
+ * receive all the possible filtering options from the Http GET request parameters.
+ * For example the following could be a valid request:
+ * <code> /documents?personId.equals=5&amp;mimeType.in=application/pdf,text/plain&amp;title.startsWith=Lease</code>
+ * As Spring is unable to properly convert the types, unless specific {@link io.github.jhipster.service.filter.Filter}
+ * class are used, we need to use fix type specific filters.
+ */
+public class DocumentCriteria implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter personId;
+
+    private StringFilter mimeType;
+
+    private LongFilter size;
+
+    private PrefixFilter title;
+
+    private InstantFilter lastModifiedDate;
+
+    public LongFilter getPersonId() {
+        return personId;
+    }
+
+    public void setPersonId(LongFilter personId) {
+        this.personId = personId;
+    }
+
+    public StringFilter getMimeType() {
+        return mimeType;
+    }
+
+    public void setMimeType(StringFilter mimeType) {
+        this.mimeType = mimeType;
+    }
+
+    public LongFilter getSize() {
+        return size;
+    }
+
+    public void setSize(LongFilter size) {
+        this.size = size;
+    }
+
+    public PrefixFilter getTitle() {
+        return title;
+    }
+
+    public void setTitle(PrefixFilter title) {
+        this.title = title;
+    }
+
+    public InstantFilter getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    public void setLastModifiedDate(InstantFilter lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final DocumentCriteria that = (DocumentCriteria) o;
+        return
+            Objects.equals(personId, that.personId) &&
+            Objects.equals(mimeType, that.mimeType) &&
+            Objects.equals(size, that.size) &&
+            Objects.equals(title, that.title) &&
+            Objects.equals(lastModifiedDate, that.lastModifiedDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+            personId,
+            mimeType,
+            size,
+            title,
+            lastModifiedDate
+        );
+    }
+
+    @Override
+    public String toString() {
+        return "DocumentCriteria{" +
+            (personId != null ? "personId=" + personId + ", " : "") +
+            (mimeType != null ? "mimeType=" + mimeType + ", " : "") +
+            (size != null ? "size=" + size + ", " : "") +
+            (title != null ? "title=" + title + ", " : "") +
+            (lastModifiedDate != null ? "lastModifiedDate=" + lastModifiedDate + ", " : "") +
+            "}";
+    }
+
+    /**
+     * A {@link StringFilter} which also matches the values starting with a prefix, which unlike {@code contains} can
+     * be answered by an index range scan.
+     */
+    public static class PrefixFilter extends StringFilter {
+
+        private static final long serialVersionUID = 1L;
+
+        private String startsWith;
+
+        public String getStartsWith() {
+            return startsWith;
+        }
+
+        public PrefixFilter setStartsWith(String startsWith) {
+            this.startsWith = startsWith;
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            if (!super.equals(o)) {
+                return false;
+            }
+            final PrefixFilter that = (PrefixFilter) o;
+            return Objects.equals(startsWith, that.startsWith);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(super.hashCode(), startsWith);
+        }
+
+        @Override
+        public String toString() {
+            return "PrefixFilter ["
+                + (getStartsWith() != null ? "startsWith=" + getStartsWith() + ", " : "")
+                + super.toString() + "]";
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package us.hennepin.mork.jhipster.application.service.dto;
+
+import us.hennepin.mork.jhipster.application.domain.Document;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Instant;
+
+/**
+ * A DTO representing the metadata of a document, without its content.
+ * <p>
+ * Its JSON representation is the one of the {@link Document} entity, the person being reduced to its id.
+ */
+public class DocumentMetadataDTO {
+
+    private Long id;
+
+    private String title;
+
+    private Long size;
+
+    private String mimeType;
+
+    private Long version;
+
+    @JsonIgnore
+    private Instant lastModifiedDate;
+
+    private Long personId;
+
+    public DocumentMetadataDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public DocumentMetadataDTO(Long id, String title, Long size, String mimeType, Long personId) {
+        this.id = id;
+        this.title = title;
+        this.size = size;
+        this.mimeType = mimeType;
+        this.personId = personId;
+    }
+
+    public DocumentMetadataDTO(Long id, String title, Long size, String mimeType, Long version, Instant lastModifiedDate, Long personId) {
+        this(id, title, size, mimeType, personId);
+        this.version = version;
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
+    public DocumentMetadataDTO(Document document) {
+        this(document.getId(), document.getTitle(), document.getSize(), document.getMimeType(), document.getVersion(),
+            document.getLastModifiedDate(), document.getPerson() != null ? document.getPerson().getId() : null);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    public void setMimeType(String mimeType) {
+        this.mimeType = mimeType;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Instant getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    public void setLastModifiedDate(Instant lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
+    @JsonIgnore
+    public Long getPersonId() {
+        return personId;
+    }
+
+    public void setPersonId(Long personId) {
+        this.personId = personId;
+    }
+
+    public PersonReference getPerson() {
+        return personId != null ? new PersonReference(personId) : null;
+    }
+
+    public void setPerson(PersonReference person) {
+        this.personId = person != null ? person.getId() : null;
+    }
+
+    @Override
+    public String toString() {
+        return "DocumentMetadataDTO{" +
+            "id=" + id +
+            ", title='" + title + "'" +
+            ", size=" + size +
+            ", mimeType='" + mimeType + "'" +
+            ", version=" + version +
+            ", personId=" + personId +
+            "}";
+    }
+
+    /**
+     * The person of a document, as it is represented in the JSON of the document.
+     */
+    public static class PersonReference {
+
+        private Long id;
+
+        public PersonReference() {
+            // Empty constructor needed for Jackson.
+        }
+
+        public PersonReference(Long id) {
+            this.id = id;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+    }
+}
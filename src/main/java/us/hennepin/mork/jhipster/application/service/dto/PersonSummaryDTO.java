@@ -0,0 +1,82 @@
+package us.hennepin.mork.jhipster.application.service.dto;
+
+import java.time.Instant;
+
+/**
+ * A DTO representing a person with the aggregates of its documents, without the documents themselves.
+ */
+public class PersonSummaryDTO {
+
+    private Long id;
+
+    private String model;
+
+    private long documentCount;
+
+    private long documentSize;
+
+    private Instant lastUploadDate;
+
+    public PersonSummaryDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public PersonSummaryDTO(Long id, String model, Long documentCount, Long documentSize, Instant lastUploadDate) {
+        this.id = id;
+        this.model = model;
+        this.documentCount = documentCount != null ? documentCount : 0L;
+        this.documentSize = documentSize != null ? documentSize : 0L;
+        this.lastUploadDate = lastUploadDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    public long getDocumentCount() {
+        return documentCount;
+    }
+
+    public void setDocumentCount(long documentCount) {
+        this.documentCount = documentCount;
+    }
+
+    public long getDocumentSize() {
+        return documentSize;
+    }
+
+    public void setDocumentSize(long documentSize) {
+        this.documentSize = documentSize;
+    }
+
+    public Instant getLastUploadDate() {
+        return lastUploadDate;
+    }
+
+    public void setLastUploadDate(Instant lastUploadDate) {
+        this.lastUploadDate = lastUploadDate;
+    }
+
+    @Override
+    public String toString() {
+        return "PersonSummaryDTO{" +
+            "id=" + id +
+            ", model='" + model + "'" +
+            ", documentCount=" + documentCount +
+            ", documentSize=" + documentSize +
+            ", lastUploadDate=" + lastUploadDate +
+            "}";
+    }
+}
@@ -1,37 +1,141 @@
 package us.hennepin.mork.jhipster.application.service.mapper;
 
-import java.io.IOException;
-import java.util.List:
-import java.util.Set;
-import java.util.stream.Collectors;
+import us.hennepin.mork.jhipster.application.domain.Content;
+import us.hennepin.mork.jhipster.application.domain.Document;
+import us.hennepin.mork.jhipster.application.service.ContentService;
+import us.hennepin.mork.jhipster.application.service.store.PreparedContent;
+import us.hennepin.mork.jhipster.application.web.rest.errors.InternalServerErrorException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import us.hennepin.mork.jhipster.application.domain.Document;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
+/**
+ * Mapper for creating the entity {@link Document} from uploaded {@link MultipartFile}s.
+ */
 @Service
 public class DocumentMapper {
-  private final Logger log = LoggerFactory.getLogger(DocumentMapper.class);
-  public Set<Document> multiPartFilesToDocuments(List<MultipartFile> files){
-    return files.stream()
-      .map((this::multiPartFileToDocument))
-      .collect((Collectors.toSet());
-}
 
-  public Document multiPartFileToDocument(MultipartFile file) {
-    Document document = new Document();
-    document.setTitle(file.getOriginalFilename());
-    document.setSize(file.getSize());
-    document.setMimeType(file.getContentType());
-    try {
-      document.addContent(file.getBytes());
-    } catch (IOException e) {
-      log.error(e.getMessage());
+    private final Logger log = LoggerFactory.getLogger(DocumentMapper.class);
+
+    private final ContentService contentService;
+
+    private final Executor uploadTaskExecutor;
+
+    public DocumentMapper(ContentService contentService, @Qualifier("uploadTaskExecutor") Executor uploadTaskExecutor) {
+        this.contentService = contentService;
+        this.uploadTaskExecutor = uploadTaskExecutor;
+    }
+
+    /**
+     * Create documents from uploaded files.
+     * <p>
+     * The files are hashed and compressed in parallel on the bounded upload executor, without holding a database
+     * connection; their contents are then stored one by one in the caller's transaction.
+     *
+     * @param files the uploaded files
+     * @return the documents, not persisted yet
+     */
+    public Set<Document> multiPartFilesToDocuments(List<MultipartFile> files) {
+        List<CompletableFuture<PreparedContent>> futures = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return prepare(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, uploadTaskExecutor));
+        }
+        List<PreparedContent> prepared = new ArrayList<>(files.size());
+        try {
+            RuntimeException failure = null;
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    prepared.add(futures.get(i).join());
+                } catch (CompletionException e) {
+                    failure = failure != null ? failure : unwrap(files.get(i).getOriginalFilename(), e);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            Set<Document> documents = new HashSet<>();
+            for (int i = 0; i < files.size(); i++) {
+                documents.add(toDocument(files.get(i), prepared.get(i)));
+            }
+            return documents;
+        } finally {
+            prepared.forEach(this::close);
+        }
     }
 
-    return document;
-  }
+    public Document multiPartFileToDocument(MultipartFile file) {
+        PreparedContent prepared;
+        try {
+            prepared = prepare(file);
+        } catch (IOException e) {
+            throw storeFailure(file.getOriginalFilename(), e);
+        }
+        try {
+            return toDocument(file, prepared);
+        } finally {
+            close(prepared);
+        }
+    }
+
+    private PreparedContent prepare(MultipartFile file) throws IOException {
+        return contentService.prepare(file, file.getContentType(), file.getOriginalFilename());
+    }
+
+    private Document toDocument(MultipartFile file, PreparedContent prepared) {
+        Content content;
+        try {
+            content = contentService.store(prepared);
+        } catch (IOException e) {
+            throw storeFailure(file.getOriginalFilename(), e);
+        }
+
+        Document document = new Document();
+        document.setTitle(file.getOriginalFilename());
+        document.setSize(content.getSize());
+        document.setMimeType(prepared.getContentType());
+        document.setContent(content);
+        return document;
+    }
+
+    private RuntimeException unwrap(String filename, CompletionException e) {
+        if (e.getCause() instanceof UncheckedIOException) {
+            return storeFailure(filename, e.getCause().getCause());
+        }
+        if (e.getCause() instanceof RuntimeException) {
+            return (RuntimeException) e.getCause();
+        }
+        return e;
+    }
+
+    private InternalServerErrorException storeFailure(String filename, Throwable e) {
+        log.error("Could not store uploaded file {}", filename, e);
+        return new InternalServerErrorException("Could not store uploaded file " + filename);
+    }
+
+    private void close(PreparedContent prepared) {
+        try {
+            prepared.close();
+        } catch (IOException e) {
+            log.warn("Could not delete temporary file of uploaded content {}", prepared.getChecksum(), e);
+        }
+    }
 }
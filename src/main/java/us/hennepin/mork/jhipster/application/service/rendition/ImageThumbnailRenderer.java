@@ -0,0 +1,45 @@
+package us.hennepin.mork.jhipster.application.service.rendition;
+
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * Renders the thumbnails of the images ImageIO can read, subsampling large images while they are decoded.
+ */
+@Component
+public class ImageThumbnailRenderer implements ThumbnailRenderer {
+
+    @Override
+    public boolean supports(String mimeType) {
+        return mimeType != null && ImageIO.getImageReadersByMIMEType(mimeType).hasNext();
+    }
+
+    @Override
+    public BufferedImage render(InputStream in, int size) throws IOException {
+        try (ImageInputStream image = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(image);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(image, true, true);
+                // only decode every n-th pixel of images much larger than the thumbnail
+                int subsampling = Math.max(1, Math.min(reader.getWidth(0), reader.getHeight(0)) / (2 * size));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package us.hennepin.mork.jhipster.application.service.rendition;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Renders the thumbnails of the first page of PDF payloads with PDFBox, at the scale of the thumbnail.
+ */
+@Component
+public class PdfThumbnailRenderer implements ThumbnailRenderer {
+
+    @Override
+    public boolean supports(String mimeType) {
+        return mimeType != null && mimeType.startsWith(MediaType.APPLICATION_PDF_VALUE);
+    }
+
+    @Override
+    public BufferedImage render(InputStream in, int size) throws IOException {
+        try (PDDocument document = PDDocument.load(in, MemoryUsageSetting.setupTempFileOnly())) {
+            if (document.getNumberOfPages() == 0) {
+                throw new IOException("The PDF document has no page");
+            }
+            PDRectangle page = document.getPage(0).getCropBox();
+            float scale = size / Math.max(page.getWidth(), page.getHeight());
+            return new PDFRenderer(document).renderImage(0, scale);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package us.hennepin.mork.jhipster.application.service.rendition;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Renders the thumbnails of payloads of some MIME types.
+ */
+public interface ThumbnailRenderer {
+
+    /**
+     * @param mimeType the MIME type of a payload
+     * @return true if this renderer can read payloads of this MIME type
+     */
+    boolean supports(String mimeType);
+
+    /**
+     * Render the first page of a payload, at most {@code size} pixels wide and high.
+     * <p>
+     * The returned image may be larger than the thumbnail, it is scaled down afterwards,
+     * but renderers should avoid decoding more pixels than needed.
+     *
+     * @param in the payload, it is not closed
+     * @param size the maximum width and height of the thumbnail
+     * @return the image
+     * @throws IOException if the payload cannot be read or decoded
+     */
+    BufferedImage render(InputStream in, int size) throws IOException;
+}
@@ -0,0 +1,4 @@
+/**
+ * Renditions of the payloads, such as thumbnails.
+ */
+package us.hennepin.mork.jhipster.application.service.rendition;
@@ -0,0 +1,25 @@
+package us.hennepin.mork.jhipster.application.service.store;
+
+/**
+ * Published when the payload of a Content in the {@link ColdContentStore} is read, listeners are notified once
+ * the transaction commits.
+ */
+public class ColdContentReadEvent {
+
+    private final Long contentId;
+
+    public ColdContentReadEvent(Long contentId) {
+        this.contentId = contentId;
+    }
+
+    public Long getContentId() {
+        return contentId;
+    }
+
+    @Override
+    public String toString() {
+        return "ColdContentReadEvent{" +
+            "contentId=" + contentId +
+            "}";
+    }
+}
@@ -0,0 +1,27 @@
+package us.hennepin.mork.jhipster.application.service.store;
+
+import us.hennepin.mork.jhipster.application.config.ApplicationProperties;
+import us.hennepin.mork.jhipster.application.repository.ContentRepository;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Content store for the payloads of idle documents, kept as files in {@code application.storage.tiering.root}.
+ * <p>
+ * Payloads are moved here, deflated, by {@link us.hennepin.mork.jhipster.application.service.ContentTieringService},
+ * so that they leave the content table and the file system store used by the active documents.
+ */
+@Component
+public class ColdContentStore extends FileSystemContentStore {
+
+    public static final String NAME = "cold";
+
+    public ColdContentStore(ContentRepository contentRepository, ApplicationProperties applicationProperties) {
+        super(contentRepository, applicationProperties.getStorage().getTiering().getRoot());
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
@@ -0,0 +1,101 @@
+package us.hennepin.mork.jhipster.application.service.store;
+
+import us.hennepin.mork.jhipster.application.config.ApplicationProperties;
+import us.hennepin.mork.jhipster.application.domain.Content;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Cache of the decoded payloads of small contents, keyed by checksum.
+ * <p>
+ * The cache is bounded by bytes, with an off-heap tier, see {@link us.hennepin.mork.jhipster.application.config.CacheConfiguration}.
+ * Only payloads up to {@code application.storage.cache.max-object-size} are admitted, larger ones are always streamed
+ * from their store. Contents are addressed by checksum, so a cached payload can never be stale.
+ * Lookups and cached bytes are reported as the {@code content.cache.*} metrics.
+ */
+@Component
+public class ContentBlobCache {
+
+    public static final String CONTENT_BLOBS_CACHE = "contentBlobs";
+
+    private final Logger log = LoggerFactory.getLogger(ContentBlobCache.class);
+
+    private final Cache cache;
+
+    private final long maxObjectSize;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final Counter servedBytes;
+
+    private final Counter cachedBytes;
+
+    public ContentBlobCache(CacheManager cacheManager, ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.Storage.Cache properties = applicationProperties.getStorage().getCache();
+        this.cache = properties.isEnabled() ? cacheManager.getCache(CONTENT_BLOBS_CACHE) : null;
+        this.maxObjectSize = properties.getMaxObjectSize();
+        this.hits = meterRegistry.counter("content.cache.gets", "result", "hit");
+        this.misses = meterRegistry.counter("content.cache.gets", "result", "miss");
+        this.servedBytes = meterRegistry.counter("content.cache.served.bytes");
+        this.cachedBytes = meterRegistry.counter("content.cache.put.bytes");
+    }
+
+    /**
+     * @param content a content
+     * @return true if the payload of the content may be cached
+     */
+    public boolean isCacheable(Content content) {
+        return cache != null && content.getChecksum() != null && content.getSize() != null
+            && content.getSize() <= maxObjectSize;
+    }
+
+    /**
+     * Get the cached payload of a content.
+     *
+     * @param content the content, it must be cacheable
+     * @return the decoded payload, empty if it is not cached
+     */
+    public Optional<byte[]> get(Content content) {
+        byte[] payload = cache.get(content.getChecksum(), byte[].class);
+        if (payload == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        servedBytes.increment(payload.length);
+        return Optional.of(payload);
+    }
+
+    /**
+     * Cache the payload of a content.
+     *
+     * @param content the content, it must be cacheable
+     * @param payload the decoded payload
+     */
+    public void put(Content content, byte[] payload) {
+        log.debug("Caching {} bytes of Content {}", payload.length, content.getId());
+        cache.put(content.getChecksum(), payload);
+        cachedBytes.increment(payload.length);
+    }
+
+    /**
+     * Remove the payload of a content from the cache, if it is cached.
+     *
+     * @param content the content
+     */
+    public void evict(Content content) {
+        if (cache != null && content.getChecksum() != null) {
+            cache.evict(content.getChecksum());
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package us.hennepin.mork.jhipster.application.service.store;
+
+import us.hennepin.mork.jhipster.application.config.ApplicationProperties;
+import us.hennepin.mork.jhipster.application.service.util.ChecksumUtil;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.io.IOUtils;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compresses payloads on their way to a {@link ContentStore}, according to their MIME type.
+ * <p>
+ * Payloads are deflated into a temporary file with a fixed-size buffer, and inflated on the fly when read.
+ * The bytes before and after compression are reported as the {@code content.compression.*} metrics.
+ */
+@Component
+public class ContentCompressor {
+
+    public static final String DEFLATE = "deflate";
+
+    private final ApplicationProperties.Storage.Compression properties;
+
+    private final List<MimeType> mimeTypes;
+
+    private final Counter originalBytes;
+
+    private final Counter storedBytes;
+
+    private final DistributionSummary ratio;
+
+    public ContentCompressor(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.properties = applicationProperties.getStorage().getCompression();
+        this.mimeTypes = properties.getMimeTypes().stream()
+            .map(MimeTypeUtils::parseMimeType)
+            .collect(Collectors.toList());
+        this.originalBytes = meterRegistry.counter("content.compression.original.bytes");
+        this.storedBytes = meterRegistry.counter("content.compression.stored.bytes");
+        this.ratio = DistributionSummary.builder("content.compression.ratio")
+            .description("Stored size divided by original size of the compressed payloads")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @param mimeType the MIME type of a payload
+     * @param size the size of the payload
+     * @return true if the payload is worth compressing
+     */
+    public boolean isCompressible(String mimeType, long size) {
+        if (!properties.isEnabled() || mimeType == null || size < properties.getMinSize()) {
+            return false;
+        }
+        MimeType type;
+        try {
+            type = MimeTypeUtils.parseMimeType(mimeType);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return mimeTypes.stream().anyMatch(compressible -> compressible.includes(type));
+    }
+
+    /**
+     * Deflate a payload into a temporary file.
+     *
+     * @param source the payload
+     * @return the temporary file, to be deleted by the caller
+     * @throws IOException if the payload cannot be read or the file cannot be written
+     */
+    public Path compress(InputStreamSource source) throws IOException {
+        Path file = Files.createTempFile("content", ".deflate");
+        Deflater deflater = new Deflater(properties.getLevel());
+        try (InputStream in = source.getInputStream();
+             OutputStream out = new DeflaterOutputStream(Files.newOutputStream(file), deflater, ChecksumUtil.BUFFER_SIZE)) {
+            IOUtils.copyLarge(in, out, new byte[ChecksumUtil.BUFFER_SIZE]);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        } finally {
+            deflater.end();
+        }
+        return file;
+    }
+
+    /**
+     * Record the outcome of a compression in the metrics.
+     *
+     * @param size the size of the payload
+     * @param storedSize the size of the stored payload
+     */
+    public void record(long size, long storedSize) {
+        originalBytes.increment(size);
+        storedBytes.increment(storedSize);
+        ratio.record(size == 0 ? 1 : (double) storedSize / size);
+    }
+
+    /**
+     * Decode a stored payload.
+     *
+     * @param in the stored payload
+     * @param encoding the encoding of the stored payload, null if it is not encoded
+     * @return the payload as uploaded
+     */
+    public InputStream decode(InputStream in, String encoding) {
+        if (encoding == null) {
+            return in;
+        }
+        if (DEFLATE.equals(encoding)) {
+            return new InflaterInputStream(in, new Inflater(), ChecksumUtil.BUFFER_SIZE) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        inf.end();
+                    }
+                }
+            };
+        }
+        throw new IllegalStateException("Unknown content encoding " + encoding);
+    }
+}
@@ -0,0 +1,70 @@
+package us.hennepin.mork.jhipster.application.service.store;
+
+import us.hennepin.mork.jhipster.application.domain.Content;
+
+import org.springframework.core.io.InputStreamSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Storage backend for the payload of a {@link Content}.
+ * <p>
+ * The store a payload lives in is recorded in {@link Content#getStore()}, so contents written by different
+ * stores can be read side by side while they are migrated from one store to the other.
+ */
+public interface ContentStore {
+
+    /**
+     * @return the name recorded in {@link Content#getStore()} for the payloads of this store
+     */
+    String getName();
+
+    /**
+     * Write the payload of a content and persist the content.
+     *
+     * @param content the content, its checksum and stored size must already be set
+     * @param source the payload
+     * @return the persisted content
+     * @throws IOException if the payload cannot be read or written
+     */
+    Content save(Content content, InputStreamSource source) throws IOException;
+
+    /**
+     * Open the payload of a content for reading.
+     *
+     * @param content the content
+     * @return a stream over the payload, to be closed by the caller
+     * @throws IOException if the payload cannot be read
+     */
+    InputStream open(Content content) throws IOException;
+
+    /**
+     * @param content the content
+     * @return the number of bytes stored for the payload of a content
+     * @throws IOException if the payload cannot be read
+     */
+    long length(Content content) throws IOException;
+
+    /**
+     * Copy a range of the payload of a content to a stream, as stored.
+     *
+     * @param content the content
+     * @param offset the zero-based position of the first byte to copy
+     * @param length the number of bytes to copy
+     * @param out the stream to copy to, it is not closed
+     * @throws IOException if the payload cannot be read or the stream cannot be written
+     */
+    void copy(Content content, long offset, long length, OutputStream out) throws IOException;
+
+    /**
+     * Drop the payload of a content from this store.
+     * <p>
+     * This is called inside the transaction that deletes or migrates the content: stores keeping payloads
+     * outside of the database must defer the deletion until that transaction commits.
+     *
+     * @param content the content
+     */
+    void delete(Content content);
+}
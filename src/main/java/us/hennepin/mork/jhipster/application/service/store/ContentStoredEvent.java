@@ -0,0 +1,24 @@
+package us.hennepin.mork.jhipster.application.service.store;
+
+/**
+ * Published when the payload of a new Content is stored, listeners are notified once the transaction commits.
+ */
+public class ContentStoredEvent {
+
+    private final Long contentId;
+
+    public ContentStoredEvent(Long contentId) {
+        this.contentId = contentId;
+    }
+
+    public Long getContentId() {
+        return contentId;
+    }
+
+    @Override
+    public String toString() {
+        return "ContentStoredEvent{" +
+            "contentId=" + contentId +
+            "}";
+    }
+}
@@ -0,0 +1,225 @@
+package us.hennepin.mork.jhipster.application.service.store;
+
+import us.hennepin.mork.jhipster.application.config.ApplicationProperties;
+import us.hennepin.mork.jhipster.application.domain.Content;
+import us.hennepin.mork.jhipster.application.repository.ContentRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Content store keeping the payloads as files on a local file system.
+ * <p>
+ * Files are named after the checksum of their payload and sharded in two levels of directories. Downloads are
+ * served with {@link FileChannel#transferTo(long, long, WritableByteChannel)}, and with Undertow's sendfile support
+ * when the requested range runs to the end of the file.
+ */
+@Component
+public class FileSystemContentStore implements ContentStore {
+
+    public static final String NAME = "filesystem";
+
+    private final Logger log = LoggerFactory.getLogger(FileSystemContentStore.class);
+
+    private final ContentRepository contentRepository;
+
+    private final Path root;
+
+    public FileSystemContentStore(ContentRepository contentRepository, ApplicationProperties applicationProperties) {
+        this(contentRepository, applicationProperties.getStorage().getFileSystem().getRoot());
+    }
+
+    protected FileSystemContentStore(ContentRepository contentRepository, String root) {
+        this.contentRepository = contentRepository;
+        this.root = Paths.get(root).toAbsolutePath();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Content save(Content content, InputStreamSource source) throws IOException {
+        String key = key(content);
+        String location = location(key);
+        Path file = root.resolve(location);
+        Files.createDirectories(file.getParent());
+        // write next to the target and rename, so that a crash never leaves a truncated payload behind
+        Path tmp = Files.createTempFile(file.getParent(), key, ".tmp");
+        try (InputStream in = source.getInputStream();
+             FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            ReadableByteChannel src = Channels.newChannel(in);
+            long size = content.getStoredSize();
+            long position = 0;
+            long transferred;
+            while (position < size && (transferred = channel.transferFrom(src, position, size - position)) > 0) {
+                position += transferred;
+            }
+            if (position != size) {
+                throw new IOException("Expected " + size + " bytes but read " + position);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        boolean existed = Files.exists(file);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("Stored content {} in {}", content.getChecksum(), file);
+        if (!existed) {
+            deleteOnRollback(file);
+        }
+
+        content.setStore(getName());
+        content.setLocation(location);
+        return contentRepository.save(content);
+    }
+
+    @Override
+    public InputStream open(Content content) throws IOException {
+        return Files.newInputStream(resolve(content));
+    }
+
+    @Override
+    public long length(Content content) throws IOException {
+        return Files.size(resolve(content));
+    }
+
+    @Override
+    public void copy(Content content, long offset, long length, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(resolve(content), StandardOpenOption.READ)) {
+            if (offset + length == channel.size() && sendFile(channel.position(offset), out)) {
+                return;
+            }
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = offset;
+            long end = offset + length;
+            while (position < end) {
+                long transferred = channel.transferTo(position, end - position, target);
+                if (transferred <= 0) {
+                    // nothing left to read, the file is shorter than the content
+                    throw new EOFException("Payload of Content " + content.getId() + " ends at " + position + ", expected "
+                        + end + " bytes");
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    @Override
+    public void delete(Content content) {
+        // the location is derived again, as it may already be the one of the store the content moved to
+        Path file = root.resolve(location(key(content)));
+        if (getName().equals(content.getStore())) {
+            content.setLocation(null);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("Could not delete {}, it will have to be removed manually", file, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Delete a new file if the transaction persisting its content rolls back, as no row would reference it.
+     * <p>
+     * The file is only deleted if it is still the one written here: a concurrent upload of the same payload
+     * replaces it with its own file, which its content references.
+     */
+    private void deleteOnRollback(Path file) throws IOException {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Object written = identity(file);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK) {
+                    return;
+                }
+                try {
+                    if (written.equals(identity(file))) {
+                        Files.delete(file);
+                        log.debug("Deleted {} after a rollback", file);
+                    }
+                } catch (NoSuchFileException e) {
+                    // already gone
+                } catch (IOException e) {
+                    log.warn("Could not delete {} after a rollback, it will have to be removed manually", file, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the file key of a file when the file system has one, its modification time otherwise
+     */
+    private static Object identity(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        return attributes.fileKey() != null ? attributes.fileKey() : attributes.lastModifiedTime();
+    }
+
+    private Path resolve(Content content) {
+        return root.resolve(content.getLocation());
+    }
+
+    private static String key(Content content) {
+        return content.getChecksum() != null ? content.getChecksum() : "content-" + content.getId();
+    }
+
+    private static String location(String key) {
+        return key.substring(key.length() - 2) + "/" + key.substring(key.length() - 4, key.length() - 2) + "/" + key;
+    }
+
+    /**
+     * Hand the rest of the channel to Undertow, which uses sendfile when the response buffer is empty.
+     * Undertow is looked up by reflection as it is only on the classpath of the dev and prod profiles.
+     */
+    private boolean sendFile(FileChannel channel, OutputStream out) throws IOException {
+        Method transferFrom;
+        try {
+            transferFrom = out.getClass().getMethod("transferFrom", FileChannel.class);
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+        try {
+            transferFrom.invoke(out, channel);
+            return true;
+        } catch (IllegalAccessException e) {
+            return false;
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
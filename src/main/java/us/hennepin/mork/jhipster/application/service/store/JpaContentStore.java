@@ -0,0 +1,80 @@
+package us.hennepin.mork.jhipster.application.service.store;
+
+import us.hennepin.mork.jhipster.application.domain.Content;
+import us.hennepin.mork.jhipster.application.repository.ContentRepository;
+import us.hennepin.mork.jhipster.application.service.util.ChecksumUtil;
+
+import org.apache.commons.io.IOUtils;
+import org.hibernate.engine.jdbc.BlobProxy;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.SQLException;
+
+/**
+ * Content store keeping the payloads in the {@code content.data} blob.
+ * <p>
+ * Payloads are bound to the INSERT statement as a stream and read back through {@link java.sql.Blob#getBinaryStream()},
+ * so they are not materialized on the heap by this application, although some JDBC drivers still buffer whole rows.
+ */
+@Component
+public class JpaContentStore implements ContentStore {
+
+    public static final String NAME = "jpa";
+
+    private final ContentRepository contentRepository;
+
+    public JpaContentStore(ContentRepository contentRepository) {
+        this.contentRepository = contentRepository;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Content save(Content content, InputStreamSource source) throws IOException {
+        try (InputStream in = source.getInputStream()) {
+            content.setBlob(BlobProxy.generateProxy(in, content.getStoredSize()));
+            content.setStore(NAME);
+            // the payload may come back from another store, whose location must not survive the move
+            content.setLocation(null);
+            // the stream is bound to the INSERT statement, so it has to be flushed before it is closed
+            return contentRepository.saveAndFlush(content);
+        }
+    }
+
+    @Override
+    public InputStream open(Content content) throws IOException {
+        try {
+            return content.getBlob().getBinaryStream();
+        } catch (SQLException e) {
+            throw new IOException("Could not read content " + content.getId(), e);
+        }
+    }
+
+    @Override
+    public long length(Content content) throws IOException {
+        try {
+            return content.getBlob().length();
+        } catch (SQLException e) {
+            throw new IOException("Could not read content " + content.getId(), e);
+        }
+    }
+
+    @Override
+    public void copy(Content content, long offset, long length, OutputStream out) throws IOException {
+        try (InputStream in = open(content)) {
+            IOUtils.copyLarge(in, out, offset, length, new byte[ChecksumUtil.BUFFER_SIZE]);
+        }
+    }
+
+    @Override
+    public void delete(Content content) {
+        content.setBlob(null);
+    }
+}
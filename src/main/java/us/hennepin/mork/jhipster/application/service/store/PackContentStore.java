@@ -0,0 +1,496 @@
+package us.hennepin.mork.jhipster.application.service.store;
+
+import us.hennepin.mork.jhipster.application.config.ApplicationProperties;
+import us.hennepin.mork.jhipster.application.domain.Content;
+import us.hennepin.mork.jhipster.application.repository.ContentRepository;
+
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+/**
+ * Content store appending small payloads to a few large pack files, rather than keeping one file per payload.
+ * <p>
+ * Each record holds a header, the key of the payload (its checksum) and the payload, and is forced to disk before
+ * the content is persisted. The position of every payload is kept in an in-memory index, rebuilt at startup by
+ * scanning the pack files: a record torn by a crash at the end of the last pack file is truncated, and the last
+ * record of a key wins. Deleting a payload appends a tombstone record for its key once the transaction commits,
+ * so that it is not indexed again at startup; its bytes are reclaimed by {@link #compact()}.
+ */
+@Component
+public class PackContentStore implements ContentStore {
+
+    public static final String NAME = "pack";
+
+    private static final int MAGIC = 0x434e5450;
+
+    /**
+     * Magic, key length, payload length and CRC-32 of the key and payload.
+     */
+    private static final int HEADER_SIZE = 4 + 2 + 4 + 4;
+
+    /**
+     * Payload length of a tombstone record, which has no payload.
+     */
+    private static final int TOMBSTONE = -1;
+
+    private static final Pattern PACK_FILE = Pattern.compile("pack-(\\d{6})\\.dat");
+
+    private static final int COMPACTION_BATCH_SIZE = 500;
+
+    /**
+     * Pack files written to within this delay are not compacted, as the transactions saving their payloads may
+     * not be committed yet.
+     */
+    private static final Duration COMPACTION_GRACE_PERIOD = Duration.ofHours(1);
+
+    private final Logger log = LoggerFactory.getLogger(PackContentStore.class);
+
+    private final ContentRepository contentRepository;
+
+    private final ApplicationProperties.Storage.Pack properties;
+
+    private final Path root;
+
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+
+    /**
+     * Keys of the tombstone records of each pack file, to carry them over when the pack file is compacted.
+     */
+    private final Map<Integer, Set<String>> tombstones = new ConcurrentHashMap<>();
+
+    private final ConcurrentSkipListMap<Integer, FileChannel> packs = new ConcurrentSkipListMap<>();
+
+    /**
+     * Guards the pack files against being closed by a compaction while they are read.
+     */
+    private final ReadWriteLock packLock = new ReentrantReadWriteLock();
+
+    private final Object appendLock = new Object();
+
+    private volatile int currentPack;
+
+    private long writePosition;
+
+    public PackContentStore(ContentRepository contentRepository, ApplicationProperties applicationProperties) {
+        this.contentRepository = contentRepository;
+        this.properties = applicationProperties.getStorage().getPack();
+        this.root = Paths.get(properties.getDirectory()).toAbsolutePath();
+    }
+
+    /**
+     * Rebuild the index from the pack files, truncating a record torn by a crash.
+     *
+     * @throws IOException if the pack files cannot be read
+     */
+    @PostConstruct
+    public void recover() throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        List<Integer> ids = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root, "pack-*.dat")) {
+            for (Path file : files) {
+                Matcher matcher = PACK_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    ids.add(Integer.valueOf(matcher.group(1)));
+                }
+            }
+        }
+        ids.sort(null);
+        for (int id : ids) {
+            FileChannel channel = FileChannel.open(packFile(id), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            packs.put(id, channel);
+            long end = scan(id, channel);
+            if (end < channel.size()) {
+                if (id == ids.get(ids.size() - 1)) {
+                    log.warn("Truncating pack file {} from {} to {} bytes, after an incomplete write", packFile(id), channel.size(), end);
+                    channel.truncate(end);
+                    channel.force(true);
+                } else {
+                    log.error("Pack file {} is corrupted after {} bytes, the following payloads are lost", packFile(id), end);
+                }
+            }
+        }
+        if (!ids.isEmpty()) {
+            currentPack = ids.get(ids.size() - 1);
+            writePosition = packs.get(currentPack).size();
+            log.info("Recovered {} payloads from {} pack files in {}", index.size(), ids.size(), root);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        for (FileChannel channel : packs.values()) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Could not close pack file", e);
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Content save(Content content, InputStreamSource source) throws IOException {
+        String key = key(content);
+        byte[] payload;
+        try (InputStream in = source.getInputStream()) {
+            payload = IOUtils.toByteArray(in);
+        }
+        if (payload.length != content.getStoredSize()) {
+            throw new IOException("Expected " + content.getStoredSize() + " bytes but read " + payload.length);
+        }
+        Entry entry = append(key, payload);
+        log.debug("Stored content {} in {} at {}", key, packFile(entry.pack), entry.offset);
+
+        content.setStore(NAME);
+        content.setLocation(key);
+        return contentRepository.save(content);
+    }
+
+    @Override
+    public InputStream open(Content content) throws IOException {
+        Entry entry = find(content);
+        return new ByteArrayInputStream(read(key(content), entry, 0, entry.length));
+    }
+
+    @Override
+    public long length(Content content) throws IOException {
+        return find(content).length;
+    }
+
+    @Override
+    public void copy(Content content, long offset, long length, OutputStream out) throws IOException {
+        out.write(read(key(content), find(content), offset, (int) length));
+    }
+
+    @Override
+    public void delete(Content content) {
+        String key = key(content);
+        Entry entry = index.get(key);
+        if (NAME.equals(content.getStore())) {
+            content.setLocation(null);
+        }
+        if (entry == null) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                // the same payload may have been stored again meanwhile, in a new record the tombstone must not hide
+                synchronized (appendLock) {
+                    if (index.remove(key, entry)) {
+                        try {
+                            appendTombstone(key);
+                        } catch (IOException e) {
+                            log.warn("Could not write the tombstone of {}, it is indexed again until compacted", key, e);
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Rewrite the live payloads of the pack files holding mostly deleted ones, and remove these pack files.
+     * <p>
+     * A payload is live when a content of this store still references it, so that the payloads of rolled back
+     * transactions are reclaimed as well.
+     * <p>
+     * This is scheduled to get fired everyday, at 04:00 (am).
+     */
+    @Scheduled(cron = "0 0 4 * * ?")
+    public void compact() {
+        Instant sealedBefore = Instant.now().minus(COMPACTION_GRACE_PERIOD);
+        for (int id : new ArrayList<>(packs.keySet())) {
+            try {
+                if (id != currentPack && Files.getLastModifiedTime(packFile(id)).toInstant().isBefore(sealedBefore)) {
+                    compact(id);
+                }
+            } catch (IOException e) {
+                log.error("Could not compact pack file {}", packFile(id), e);
+            }
+        }
+    }
+
+    private void compact(int id) throws IOException {
+        Map<String, Entry> entries = index.entrySet().stream()
+            .filter(e -> e.getValue().pack == id)
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        Set<String> live = findLiveKeys(entries.keySet());
+        live.retainAll(entries.keySet());
+        long liveBytes = live.stream().mapToLong(key -> recordSize(key, entries.get(key).length)).sum();
+        long size = packs.get(id).size();
+        if (size == 0 || (double) (size - liveBytes) / size <= properties.getCompactionThreshold()) {
+            return;
+        }
+
+        for (String key : live) {
+            Entry entry = entries.get(key);
+            byte[] payload = read(key, entry, 0, entry.length);
+            Entry moved = append(key, payload);
+            index.replace(key, entry, moved);
+        }
+        entries.forEach(index::remove);
+        Set<String> dead = tombstones.getOrDefault(id, Collections.emptySet());
+        if (packs.firstKey() < id) {
+            // older pack files may still hold the deleted payloads
+            for (String key : dead) {
+                synchronized (appendLock) {
+                    if (!index.containsKey(key)) {
+                        appendTombstone(key);
+                    }
+                }
+            }
+        }
+
+        packLock.writeLock().lock();
+        try {
+            packs.remove(id).close();
+        } finally {
+            packLock.writeLock().unlock();
+        }
+        tombstones.remove(id);
+        Files.delete(packFile(id));
+        log.info("Compacted pack file {}, moved {} payloads and reclaimed {} bytes", packFile(id), live.size(), size - liveBytes);
+    }
+
+    private Set<String> findLiveKeys(Set<String> keys) {
+        Set<String> live = new HashSet<>();
+        List<String> batch = new ArrayList<>(COMPACTION_BATCH_SIZE);
+        for (String key : keys) {
+            batch.add(key);
+            if (batch.size() == COMPACTION_BATCH_SIZE) {
+                live.addAll(contentRepository.findLocationsInStore(NAME, batch));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            live.addAll(contentRepository.findLocationsInStore(NAME, batch));
+        }
+        return live;
+    }
+
+    private Entry append(String key, byte[] payload) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = record(keyBytes, payload, payload.length);
+        synchronized (appendLock) {
+            long position = write(record);
+            Entry entry = new Entry(currentPack, position + HEADER_SIZE + keyBytes.length, payload.length);
+            index.put(key, entry);
+            return entry;
+        }
+    }
+
+    private void appendTombstone(String key) throws IOException {
+        synchronized (appendLock) {
+            write(record(key.getBytes(StandardCharsets.UTF_8), new byte[0], TOMBSTONE));
+            tombstones.computeIfAbsent(currentPack, id -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+    }
+
+    private static ByteBuffer record(byte[] keyBytes, byte[] payload, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(keyBytes);
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + keyBytes.length + payload.length)
+            .putInt(MAGIC)
+            .putShort((short) keyBytes.length)
+            .putInt(length)
+            .putInt((int) crc.getValue())
+            .put(keyBytes)
+            .put(payload);
+        record.flip();
+        return record;
+    }
+
+    /**
+     * Append a record to the current pack file, holding the append lock.
+     *
+     * @return the position of the record
+     */
+    private long write(ByteBuffer record) throws IOException {
+        if (packs.isEmpty() || (writePosition > 0 && writePosition + record.remaining() > properties.getMaxPackSize())) {
+            roll();
+        }
+        FileChannel channel = packs.get(currentPack);
+        long start = writePosition;
+        long position = start;
+        while (record.hasRemaining()) {
+            position += channel.write(record, position);
+        }
+        channel.force(true);
+        writePosition = position;
+        return start;
+    }
+
+    private void roll() throws IOException {
+        Files.createDirectories(root);
+        int id = packs.isEmpty() ? 1 : packs.lastKey() + 1;
+        FileChannel channel = FileChannel.open(packFile(id), StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        packs.put(id, channel);
+        currentPack = id;
+        writePosition = 0;
+        log.debug("Started pack file {}", packFile(id));
+    }
+
+    /**
+     * Index the records of a pack file.
+     *
+     * @return the position following the last complete record
+     */
+    private long scan(int id, FileChannel channel) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (position + HEADER_SIZE <= size) {
+            header.clear();
+            readFully(channel, header, position);
+            header.flip();
+            int magic = header.getInt();
+            int keyLength = header.getShort() & 0xffff;
+            int length = header.getInt();
+            int checksum = header.getInt();
+            boolean tombstone = length == TOMBSTONE;
+            if (tombstone) {
+                length = 0;
+            }
+            if (magic != MAGIC || length < 0 || position + recordSize(keyLength, length) > size) {
+                return position;
+            }
+            ByteBuffer body = ByteBuffer.allocate(keyLength + length);
+            readFully(channel, body, position + HEADER_SIZE);
+            CRC32 crc = new CRC32();
+            crc.update(body.array());
+            if ((int) crc.getValue() != checksum) {
+                return position;
+            }
+            String key = new String(body.array(), 0, keyLength, StandardCharsets.UTF_8);
+            if (tombstone) {
+                index.remove(key);
+                tombstones.computeIfAbsent(id, pack -> ConcurrentHashMap.newKeySet()).add(key);
+            } else {
+                index.put(key, new Entry(id, position + HEADER_SIZE + keyLength, length));
+            }
+            position += recordSize(keyLength, length);
+        }
+        return position;
+    }
+
+    private byte[] read(String key, Entry entry, long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (true) {
+            packLock.readLock().lock();
+            try {
+                FileChannel channel = packs.get(entry.pack);
+                if (channel != null) {
+                    readFully(channel, buffer, entry.offset + offset);
+                    return buffer.array();
+                }
+            } finally {
+                packLock.readLock().unlock();
+            }
+            // a compaction moves the live payloads before closing their pack file, so the index has their new position
+            Entry moved = index.get(key);
+            if (moved == null || moved == entry) {
+                throw new FileNotFoundException("Pack file " + packFile(entry.pack) + " was compacted");
+            }
+            entry = moved;
+        }
+    }
+
+    private Entry find(Content content) throws FileNotFoundException {
+        Entry entry = index.get(key(content));
+        if (entry == null) {
+            throw new FileNotFoundException("No payload for content " + content.getId() + " in " + root);
+        }
+        return entry;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException();
+            }
+            position += read;
+        }
+    }
+
+    private static String key(Content content) {
+        return content.getChecksum() != null ? content.getChecksum() : "content-" + content.getId();
+    }
+
+    private static long recordSize(String key, int length) {
+        return recordSize(key.getBytes(StandardCharsets.UTF_8).length, length);
+    }
+
+    private static long recordSize(int keyLength, int length) {
+        return (long) HEADER_SIZE + keyLength + length;
+    }
+
+    private Path packFile(int id) {
+        return root.resolve(String.format("pack-%06d.dat", id));
+    }
+
+    /**
+     * Position of a payload in a pack file.
+     */
+    private static final class Entry {
+
+        private final int pack;
+
+        private final long offset;
+
+        private final int length;
+
+        private Entry(int pack, long offset, int length) {
+            this.pack = pack;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
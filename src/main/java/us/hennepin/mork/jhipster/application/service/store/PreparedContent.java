@@ -0,0 +1,75 @@
+package us.hennepin.mork.jhipster.application.service.store;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A payload that was read, hashed, typed and possibly compressed, ready to be written to a {@link ContentStore}.
+ * <p>
+ * Preparing a payload does not touch the database, so it can run outside of the transaction that persists it.
+ * Closing it deletes the temporary compressed copy, if any.
+ */
+public class PreparedContent implements AutoCloseable {
+
+    private final InputStreamSource source;
+
+    private final String contentType;
+
+    private final String checksum;
+
+    private final long size;
+
+    private final Path compressed;
+
+    private final long storedSize;
+
+    public PreparedContent(InputStreamSource source, String contentType, String checksum, long size, Path compressed, long storedSize) {
+        this.source = source;
+        this.contentType = contentType;
+        this.checksum = checksum;
+        this.size = size;
+        this.compressed = compressed;
+        this.storedSize = storedSize;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getStoredSize() {
+        return storedSize;
+    }
+
+    /**
+     * @return the encoding of the bytes to store, null if they are stored as uploaded
+     */
+    public String getEncoding() {
+        return compressed != null ? ContentCompressor.DEFLATE : null;
+    }
+
+    /**
+     * @return the bytes to store
+     */
+    public InputStreamSource getStoredSource() {
+        return compressed != null ? new FileSystemResource(compressed.toFile()) : source;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (compressed != null) {
+            Files.deleteIfExists(compressed);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Content stores, where the payloads of contents are kept.
+ */
+package us.hennepin.mork.jhipster.application.service.store;
@@ -0,0 +1,85 @@
+package us.hennepin.mork.jhipster.application.service.text;
+
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Extracts the text of Word (DOCX) payloads, streaming the runs of text of their main part.
+ */
+@Component
+public class DocxTextExtractor implements TextExtractor {
+
+    private static final String DOCX = "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+
+    private static final String MAIN_PART = "word/document.xml";
+
+    private static final String WORDPROCESSINGML = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+
+    private final XMLInputFactory xmlInputFactory;
+
+    public DocxTextExtractor() {
+        xmlInputFactory = XMLInputFactory.newInstance();
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    @Override
+    public boolean supports(String mimeType) {
+        return mimeType != null && mimeType.startsWith(DOCX);
+    }
+
+    @Override
+    public String extract(InputStream in, String mimeType, int maxLength) throws IOException {
+        ZipInputStream zip = new ZipInputStream(in);
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            if (MAIN_PART.equals(entry.getName())) {
+                try {
+                    return extractMainPart(zip, maxLength);
+                } catch (XMLStreamException e) {
+                    throw new IOException("Could not parse " + MAIN_PART, e);
+                }
+            }
+        }
+        throw new IOException("Not a Word document, " + MAIN_PART + " is missing");
+    }
+
+    private String extractMainPart(InputStream in, int maxLength) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(in);
+        try {
+            boolean inText = false;
+            while (reader.hasNext() && text.length() < maxLength) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT && WORDPROCESSINGML.equals(reader.getNamespaceURI())) {
+                    String name = reader.getLocalName();
+                    inText = "t".equals(name);
+                    if ("tab".equals(name)) {
+                        text.append('\t');
+                    } else if ("br".equals(name)) {
+                        text.append('\n');
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && WORDPROCESSINGML.equals(reader.getNamespaceURI())) {
+                    if ("t".equals(reader.getLocalName())) {
+                        inText = false;
+                    } else if ("p".equals(reader.getLocalName())) {
+                        text.append('\n');
+                    }
+                } else if (inText && (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA)) {
+                    text.append(reader.getText());
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return text.length() > maxLength ? text.substring(0, maxLength) : text.toString();
+    }
+}
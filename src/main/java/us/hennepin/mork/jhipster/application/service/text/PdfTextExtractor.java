@@ -0,0 +1,30 @@
+package us.hennepin.mork.jhipster.application.service.text;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Extracts the text of PDF payloads with PDFBox, buffering them in temporary files rather than in memory.
+ */
+@Component
+public class PdfTextExtractor implements TextExtractor {
+
+    @Override
+    public boolean supports(String mimeType) {
+        return mimeType != null && mimeType.startsWith(MediaType.APPLICATION_PDF_VALUE);
+    }
+
+    @Override
+    public String extract(InputStream in, String mimeType, int maxLength) throws IOException {
+        try (PDDocument document = PDDocument.load(in, MemoryUsageSetting.setupTempFileOnly())) {
+            String text = new PDFTextStripper().getText(document);
+            return text.length() > maxLength ? text.substring(0, maxLength) : text;
+        }
+    }
+}
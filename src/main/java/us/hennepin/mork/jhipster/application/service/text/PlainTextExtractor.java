@@ -0,0 +1,51 @@
+package us.hennepin.mork.jhipster.application.service.text;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Extracts the text of text payloads, decoded with their charset parameter, UTF-8 by default.
+ */
+@Component
+public class PlainTextExtractor implements TextExtractor {
+
+    @Override
+    public boolean supports(String mimeType) {
+        return mimeType != null && (mimeType.startsWith("text/")
+            || mimeType.startsWith(MediaType.APPLICATION_JSON_VALUE)
+            || mimeType.startsWith(MediaType.APPLICATION_XML_VALUE));
+    }
+
+    @Override
+    public String extract(InputStream in, String mimeType, int maxLength) throws IOException {
+        Charset charset = StandardCharsets.UTF_8;
+        try {
+            MimeType type = MimeTypeUtils.parseMimeType(mimeType);
+            if (type.getCharset() != null) {
+                charset = type.getCharset();
+            }
+        } catch (IllegalArgumentException e) {
+            // not a valid MIME type, keep the default charset
+        }
+        return read(new InputStreamReader(in, charset), maxLength);
+    }
+
+    private static String read(Reader reader, int maxLength) throws IOException {
+        StringBuilder text = new StringBuilder();
+        char[] buffer = new char[4096];
+        int read;
+        while (text.length() < maxLength && (read = reader.read(buffer, 0, Math.min(buffer.length, maxLength - text.length()))) != -1) {
+            text.append(buffer, 0, read);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,27 @@
+package us.hennepin.mork.jhipster.application.service.text;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Extracts the text of payloads of some MIME types.
+ */
+public interface TextExtractor {
+
+    /**
+     * @param mimeType the MIME type of a payload
+     * @return true if this extractor can read payloads of this MIME type
+     */
+    boolean supports(String mimeType);
+
+    /**
+     * Extract the text of a payload.
+     *
+     * @param in the payload, it is not closed
+     * @param mimeType the MIME type of the payload
+     * @param maxLength the maximum number of characters to extract, the rest of the text is ignored
+     * @return the text
+     * @throws IOException if the payload cannot be read or parsed
+     */
+    String extract(InputStream in, String mimeType, int maxLength) throws IOException;
+}
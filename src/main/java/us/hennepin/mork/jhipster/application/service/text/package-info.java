@@ -0,0 +1,4 @@
+/**
+ * Extraction of the text of the payloads, for full-text search.
+ */
+package us.hennepin.mork.jhipster.application.service.text;
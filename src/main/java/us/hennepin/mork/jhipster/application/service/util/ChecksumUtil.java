@@ -0,0 +1,66 @@
+package us.hennepin.mork.jhipster.application.service.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Utility class for computing content checksums with a fixed-size buffer.
+ */
+public final class ChecksumUtil {
+
+    public static final String ALGORITHM = "SHA-256";
+
+    public static final int BUFFER_SIZE = 8192;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private ChecksumUtil() {
+    }
+
+    /**
+     * @return a new SHA-256 message digest
+     */
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+
+    /**
+     * Read the stream to its end, feeding every byte to the digest.
+     *
+     * @param in the stream to consume, it is not closed
+     * @param digest the digest to update
+     * @return the number of bytes read
+     * @throws IOException if the stream cannot be read
+     */
+    public static long update(InputStream in, MessageDigest digest) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long count = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+            count += read;
+        }
+        return count;
+    }
+
+    /**
+     * Encode a digest as a lower-case hexadecimal String.
+     *
+     * @param digest the digest bytes
+     * @return the hexadecimal representation
+     */
+    public static String toHex(byte[] digest) {
+        char[] chars = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            chars[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[digest[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,81 @@
+package us.hennepin.mork.jhipster.application.service.util;
+
+import org.springframework.http.MediaType;
+
+import java.net.URLConnection;
+
+/**
+ * Utility class for detecting the MIME type of a payload from its first bytes.
+ */
+public final class MimeTypeUtil {
+
+    /**
+     * Number of leading bytes needed to detect a MIME type.
+     */
+    public static final int MAGIC_LENGTH = 8;
+
+    private static final byte[] PDF = {'%', 'P', 'D', 'F'};
+    private static final byte[] ZIP = {'P', 'K', 3, 4};
+    private static final byte[] TIFF_LE = {'I', 'I', '*', 0};
+    private static final byte[] TIFF_BE = {'M', 'M', 0, '*'};
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G'};
+    private static final byte[] GIF = {'G', 'I', 'F', '8'};
+
+    private MimeTypeUtil() {
+    }
+
+    /**
+     * Resolve the MIME type of a payload: the declared type is trusted, unless it is missing or generic.
+     *
+     * @param declared the MIME type declared by the client, may be null
+     * @param head the first bytes of the payload
+     * @param length the number of valid bytes in head
+     * @param filename the name of the file, may be null
+     * @return the MIME type, {@code application/octet-stream} when it cannot be detected
+     */
+    public static String resolve(String declared, byte[] head, int length, String filename) {
+        if (declared != null && !declared.isEmpty() && !MediaType.APPLICATION_OCTET_STREAM_VALUE.equals(declared)) {
+            return declared;
+        }
+        String detected = detect(head, length);
+        if (detected == null && filename != null) {
+            detected = URLConnection.guessContentTypeFromName(filename);
+        }
+        return detected != null ? detected : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    }
+
+    private static String detect(byte[] head, int length) {
+        if (startsWith(head, length, PDF)) {
+            return MediaType.APPLICATION_PDF_VALUE;
+        }
+        if (startsWith(head, length, ZIP)) {
+            return "application/zip";
+        }
+        if (startsWith(head, length, TIFF_LE) || startsWith(head, length, TIFF_BE)) {
+            return "image/tiff";
+        }
+        if (startsWith(head, length, JPEG)) {
+            return MediaType.IMAGE_JPEG_VALUE;
+        }
+        if (startsWith(head, length, PNG)) {
+            return MediaType.IMAGE_PNG_VALUE;
+        }
+        if (startsWith(head, length, GIF)) {
+            return MediaType.IMAGE_GIF_VALUE;
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] head, int length, byte[] magic) {
+        if (length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (head[i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
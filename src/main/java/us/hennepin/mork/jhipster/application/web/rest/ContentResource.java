@@ -1,16 +1,26 @@
 package us.hennepin.mork.jhipster.application.web.rest;
+import com.codahale.metrics.annotation.Timed;
 import us.hennepin.mork.jhipster.application.domain.Content;
 import us.hennepin.mork.jhipster.application.repository.ContentRepository;
 import us.hennepin.mork.jhipster.application.repository.search.ContentSearchRepository;
+import us.hennepin.mork.jhipster.application.service.ContentService;
+import us.hennepin.mork.jhipster.application.service.dto.ContentSummaryDTO;
 import us.hennepin.mork.jhipster.application.web.rest.errors.BadRequestAlertException;
+import us.hennepin.mork.jhipster.application.web.rest.errors.ContentInUseException;
 import us.hennepin.mork.jhipster.application.web.rest.util.HeaderUtil;
+import us.hennepin.mork.jhipster.application.web.rest.util.PaginationUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 
@@ -36,25 +46,36 @@ public class ContentResource {
 
     private final ContentSearchRepository contentSearchRepository;
 
-    public ContentResource(ContentRepository contentRepository, ContentSearchRepository contentSearchRepository) {
+    private final ContentService contentService;
+
+    public ContentResource(ContentRepository contentRepository, ContentSearchRepository contentSearchRepository, ContentService contentService) {
         this.contentRepository = contentRepository;
         this.contentSearchRepository = contentSearchRepository;
+        this.contentService = contentService;
     }
 
     /**
      * POST  /contents : Create a new content.
+     * <p>
+     * The payload is stored through {@link ContentService}, an identical payload already stored is reused.
      *
      * @param content the content to create
      * @return the ResponseEntity with status 201 (Created) and with body the new content, or with status 400 (Bad Request) if the content has already an ID
+     * or no data
      * @throws URISyntaxException if the Location URI syntax is incorrect
+     * @throws IOException if the payload cannot be stored
      */
     @PostMapping("/contents")
-    public ResponseEntity<Content> createContent(@Valid @RequestBody Content content) throws URISyntaxException {
+    public ResponseEntity<Content> createContent(@Valid @RequestBody Content content) throws URISyntaxException, IOException {
         log.debug("REST request to save Content : {}", content);
         if (content.getId() != null) {
             throw new BadRequestAlertException("A new content cannot already have an ID", ENTITY_NAME, "idexists");
         }
-        Content result = contentRepository.save(content);
+        byte[] data = content.getData();
+        if (data == null) {
+            throw new BadRequestAlertException("A new content must have data", ENTITY_NAME, "datanull");
+        }
+        Content result = contentService.create(data, content.getDataContentType());
         contentSearchRepository.save(result);
         return ResponseEntity.created(new URI("/api/contents/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(ENTITY_NAME, result.getId().toString()))
@@ -63,43 +84,62 @@ public class ContentResource {
 
     /**
      * PUT  /contents : Updates an existing content.
+     * <p>
+     * The payload is only replaced when data is given, through {@link ContentService}, which stores it in another
+     * content as contents are shared by documents, and derives its checksum, sizes, encoding and store.
      *
      * @param content the content to update
-     * @return the ResponseEntity with status 200 (OK) and with body the updated content,
-     * or with status 400 (Bad Request) if the content is not valid,
-     * or with status 500 (Internal Server Error) if the content couldn't be updated
+     * @return the ResponseEntity with status 200 (OK) and with body the updated content, whose id is the one of the
+     * content holding the new payload, or with status 400 (Bad Request) if the content is not valid,
+     * or with status 404 (Not Found) if the content does not exist
      * @throws URISyntaxException if the Location URI syntax is incorrect
+     * @throws IOException if the payload cannot be stored
      */
     @PutMapping("/contents")
-    public ResponseEntity<Content> updateContent(@Valid @RequestBody Content content) throws URISyntaxException {
+    public ResponseEntity<Content> updateContent(@Valid @RequestBody Content content) throws URISyntaxException, IOException {
         log.debug("REST request to update Content : {}", content);
         if (content.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
         }
-        Content result = contentRepository.save(content);
-        contentSearchRepository.save(result);
-        return ResponseEntity.ok()
-            .headers(HeaderUtil.createEntityUpdateAlert(ENTITY_NAME, content.getId().toString()))
-            .body(result);
+        Optional<Content> result = contentService.update(content);
+        result.ifPresent(contentSearchRepository::save);
+        return ResponseUtil.wrapOrNotFound(result,
+            HeaderUtil.createEntityUpdateAlert(ENTITY_NAME, result.map(Content::getId).orElse(content.getId()).toString()));
     }
 
     /**
-     * GET  /contents : get all the contents.
+     * GET  /contents : get a page of the contents.
+     * <p>
+     * Pages hold at most {@code spring.data.web.pageable.max-page-size} contents, whatever the requested size.
      *
-     * @param filter the filter of the request
+     * @param pageable the pagination information
      * @return the ResponseEntity with status 200 (OK) and the list of contents in body
+     * @throws IOException if a payload cannot be read
      */
     @GetMapping("/contents")
-    public List<Content> getAllContents(@RequestParam(required = false) String filter) {
-        if ("document-is-null".equals(filter)) {
-            log.debug("REST request to get all Contents where document is null");
-            return StreamSupport
-                .stream(contentRepository.findAll().spliterator(), false)
-                .filter(content -> content.getDocument() == null)
-                .collect(Collectors.toList());
-        }
-        log.debug("REST request to get all Contents");
-        return contentRepository.findAll();
+    @Timed
+    public ResponseEntity<List<Content>> getAllContents(Pageable pageable) throws IOException {
+        log.debug("REST request to get a page of Contents");
+        Page<Content> page = contentService.findAll(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/contents");
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /contents?filter=document-is-null : get a page of the contents no document references.
+     * <p>
+     * The orphans are found by the database, and only their metadata is read, never their payload.
+     *
+     * @param pageable the pagination information
+     * @return the ResponseEntity with status 200 (OK) and the list of content summaries in body
+     */
+    @GetMapping(value = "/contents", params = "filter=document-is-null")
+    @Timed
+    public ResponseEntity<List<ContentSummaryDTO>> getAllOrphanContents(Pageable pageable) {
+        log.debug("REST request to get a page of Contents where document is null");
+        Page<ContentSummaryDTO> page = contentRepository.findAllOrphans(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/contents?filter=document-is-null");
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
     /**
@@ -107,25 +147,27 @@ public class ContentResource {
      *
      * @param id the id of the content to retrieve
      * @return the ResponseEntity with status 200 (OK) and with body the content, or with status 404 (Not Found)
+     * @throws IOException if the payload cannot be read
      */
     @GetMapping("/contents/{id}")
-    public ResponseEntity<Content> getContent(@PathVariable Long id) {
+    public ResponseEntity<Content> getContent(@PathVariable Long id) throws IOException {
         log.debug("REST request to get Content : {}", id);
-        Optional<Content> content = contentRepository.findById(id);
+        Optional<Content> content = contentService.findOne(id);
         return ResponseUtil.wrapOrNotFound(content);
     }
 
     /**
-     * DELETE  /contents/:id : delete the "id" content.
+     * DELETE  /contents/:id : delete the "id" content, with its payload.
      *
      * @param id the id of the content to delete
-     * @return the ResponseEntity with status 200 (OK)
+     * @return the ResponseEntity with status 200 (OK), or with status 409 (Conflict) if documents still reference the content
      */
     @DeleteMapping("/contents/{id}")
     public ResponseEntity<Void> deleteContent(@PathVariable Long id) {
         log.debug("REST request to delete Content : {}", id);
-        contentRepository.deleteById(id);
-        contentSearchRepository.deleteById(id);
+        if (!contentService.delete(id)) {
+            throw new ContentInUseException();
+        }
         return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert(ENTITY_NAME, id.toString())).build();
     }
 
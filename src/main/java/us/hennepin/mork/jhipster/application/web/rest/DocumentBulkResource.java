@@ -0,0 +1,84 @@
+package us.hennepin.mork.jhipster.application.web.rest;
+import com.codahale.metrics.annotation.Timed;
+import us.hennepin.mork.jhipster.application.domain.Document;
+import us.hennepin.mork.jhipster.application.service.DocumentBulkService;
+import us.hennepin.mork.jhipster.application.service.dto.DocumentBulkResultDTO;
+import us.hennepin.mork.jhipster.application.web.rest.errors.BadRequestAlertException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST controller for creating, updating and deleting many Documents in a single request.
+ * <p>
+ * Every request holds at most {@value #MAX_ITEMS} items, and is answered with status 200 (OK) and the result of
+ * every item, in the order of the request, see {@link DocumentBulkService}.
+ */
+@RestController
+@RequestMapping("/api")
+public class DocumentBulkResource {
+
+    public static final int MAX_ITEMS = 10000;
+
+    private final Logger log = LoggerFactory.getLogger(DocumentBulkResource.class);
+
+    private static final String ENTITY_NAME = "document";
+
+    private final DocumentBulkService documentBulkService;
+
+    public DocumentBulkResource(DocumentBulkService documentBulkService) {
+        this.documentBulkService = documentBulkService;
+    }
+
+    /**
+     * POST  /documents/bulk : Create new documents.
+     *
+     * @param documents the documents to create
+     * @return the result of every document, with status 201 (Created) and its id, or with status 400 (Bad Request)
+     * if the document is not valid or has already an ID
+     */
+    @PostMapping("/documents/bulk")
+    @Timed
+    public List<DocumentBulkResultDTO> createDocuments(@RequestBody List<Document> documents) {
+        log.debug("REST request to save {} Documents", documents.size());
+        checkSize(documents);
+        return documentBulkService.createAll(documents);
+    }
+
+    /**
+     * PUT  /documents/bulk : Updates existing documents.
+     *
+     * @param documents the documents to update
+     * @return the result of every document, with status 200 (OK), or with status 400 (Bad Request) if the document
+     * is not valid or has no ID, or with status 404 (Not Found), or with status 409 (Conflict) if its version is stale
+     */
+    @PutMapping("/documents/bulk")
+    @Timed
+    public List<DocumentBulkResultDTO> updateDocuments(@RequestBody List<Document> documents) {
+        log.debug("REST request to update {} Documents", documents.size());
+        checkSize(documents);
+        return documentBulkService.updateAll(documents);
+    }
+
+    /**
+     * POST  /documents/bulk/delete : delete documents.
+     *
+     * @param ids the ids of the documents to delete
+     * @return the result of every document, with status 200 (OK), or with status 404 (Not Found)
+     */
+    @PostMapping("/documents/bulk/delete")
+    @Timed
+    public List<DocumentBulkResultDTO> deleteDocuments(@RequestBody List<Long> ids) {
+        log.debug("REST request to delete {} Documents", ids.size());
+        checkSize(ids);
+        return documentBulkService.deleteAll(ids);
+    }
+
+    private static void checkSize(List<?> items) {
+        if (items.size() > MAX_ITEMS) {
+            throw new BadRequestAlertException("At most " + MAX_ITEMS + " documents can be sent at once", ENTITY_NAME, "toomanyitems");
+        }
+    }
+}
@@ -1,21 +1,51 @@
 package us.hennepin.mork.jhipster.application.web.rest;
+import com.codahale.metrics.annotation.Timed;
+import us.hennepin.mork.jhipster.application.domain.Content;
 import us.hennepin.mork.jhipster.application.domain.Document;
+import us.hennepin.mork.jhipster.application.domain.Person;
+import us.hennepin.mork.jhipster.application.domain.Thumbnail;
 import us.hennepin.mork.jhipster.application.repository.DocumentRepository;
 import us.hennepin.mork.jhipster.application.repository.search.DocumentSearchRepository;
+import us.hennepin.mork.jhipster.application.service.ContentService;
+import us.hennepin.mork.jhipster.application.service.ContentTieringService;
+import us.hennepin.mork.jhipster.application.service.DocumentExportService;
+import us.hennepin.mork.jhipster.application.service.DocumentQueryService;
+import us.hennepin.mork.jhipster.application.service.PersonSummaryService;
+import us.hennepin.mork.jhipster.application.service.dto.DocumentContentDTO;
+import us.hennepin.mork.jhipster.application.service.dto.DocumentCriteria;
+import us.hennepin.mork.jhipster.application.service.dto.DocumentMetadataDTO;
+import us.hennepin.mork.jhipster.application.service.DocumentIndexService;
+import us.hennepin.mork.jhipster.application.service.RenditionService;
 import us.hennepin.mork.jhipster.application.web.rest.errors.BadRequestAlertException;
+import us.hennepin.mork.jhipster.application.web.rest.errors.DocumentNotFoundException;
 import us.hennepin.mork.jhipster.application.web.rest.util.HeaderUtil;
+import us.hennepin.mork.jhipster.application.web.rest.util.PaginationUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -26,9 +56,6 @@ import static org.elasticsearch.index.query.QueryBuilders.*;
  */
 @RestController
 @RequestMapping("/api")
-@EntityGraph(attributePaths = "content")
-Optional<Document> findOneById(Long id);
-
 public class DocumentResource {
 
     private final Logger log = LoggerFactory.getLogger(DocumentResource.class);
@@ -39,9 +66,33 @@ public class DocumentResource {
 
     private final DocumentSearchRepository documentSearchRepository;
 
-    public DocumentResource(DocumentRepository documentRepository, DocumentSearchRepository documentSearchRepository) {
+    private final DocumentIndexService documentIndexService;
+
+    private final ContentService contentService;
+
+    private final RenditionService renditionService;
+
+    private final ContentTieringService contentTieringService;
+
+    private final DocumentExportService documentExportService;
+
+    private final PersonSummaryService personSummaryService;
+
+    private final DocumentQueryService documentQueryService;
+
+    public DocumentResource(DocumentRepository documentRepository, DocumentSearchRepository documentSearchRepository,
+            DocumentIndexService documentIndexService, ContentService contentService, RenditionService renditionService,
+            ContentTieringService contentTieringService, DocumentExportService documentExportService,
+            PersonSummaryService personSummaryService, DocumentQueryService documentQueryService) {
         this.documentRepository = documentRepository;
         this.documentSearchRepository = documentSearchRepository;
+        this.documentIndexService = documentIndexService;
+        this.contentService = contentService;
+        this.renditionService = renditionService;
+        this.contentTieringService = contentTieringService;
+        this.documentExportService = documentExportService;
+        this.personSummaryService = personSummaryService;
+        this.documentQueryService = documentQueryService;
     }
 
     /**
@@ -52,13 +103,15 @@ public class DocumentResource {
      * @throws URISyntaxException if the Location URI syntax is incorrect
      */
     @PostMapping("/documents")
+    @Transactional
     public ResponseEntity<Document> createDocument(@Valid @RequestBody Document document) throws URISyntaxException {
         log.debug("REST request to save Document : {}", document);
         if (document.getId() != null) {
             throw new BadRequestAlertException("A new document cannot already have an ID", ENTITY_NAME, "idexists");
         }
         Document result = documentRepository.save(document);
-        documentSearchRepository.save(result);
+        personSummaryService.documentCreated(result);
+        documentIndexService.index(result);
         return ResponseEntity.created(new URI("/api/documents/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(ENTITY_NAME, result.getId().toString()))
             .body(result);
@@ -74,52 +127,227 @@ public class DocumentResource {
      * @throws URISyntaxException if the Location URI syntax is incorrect
      */
     @PutMapping("/documents")
+    @Transactional
     public ResponseEntity<Document> updateDocument(@Valid @RequestBody Document document) throws URISyntaxException {
         log.debug("REST request to update Document : {}", document);
         if (document.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
         }
+        Optional<Document> existing = documentRepository.findById(document.getId());
+        // the content is not part of the JSON representation, keep the one already referenced
+        existing.map(Document::getContent).ifPresent(document::setContent);
+        // clients not sending the version they read are not checked for concurrent updates
+        if (document.getVersion() == null) {
+            existing.map(Document::getVersion).ifPresent(document::setVersion);
+        }
+        // read before the save, which copies the update into the existing document
+        Optional<Long> previousPersonId = existing.map(Document::getPerson).map(Person::getId);
+        Optional<Long> previousSize = existing.map(Document::getSize);
         Document result = documentRepository.save(document);
-        documentSearchRepository.save(result);
+        if (previousPersonId.isPresent()) {
+            personSummaryService.documentUpdated(previousPersonId.get(), previousSize.orElse(null), result);
+        } else {
+            personSummaryService.documentCreated(result);
+        }
+        documentIndexService.index(result);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(ENTITY_NAME, document.getId().toString()))
             .body(result);
     }
 
     /**
-     * GET  /documents : get all the documents.
+     * GET  /documents : get a page of the documents.
+     * <p>
+     * Pages hold at most {@code spring.data.web.pageable.max-page-size} documents, whatever the requested size.
+     * Documents can be filtered on their person, MIME type, size, title and last modified date, see {@link DocumentCriteria}.
      *
+     * @param criteria the criteria which the requested documents should match
+     * @param pageable the pagination information
      * @return the ResponseEntity with status 200 (OK) and the list of documents in body
      */
     @GetMapping("/documents")
-    public List<Document> getAllDocuments() {
-        log.debug("REST request to get all Documents");
-        return documentRepository.findAll();
+    @Timed
+    public ResponseEntity<List<DocumentMetadataDTO>> getAllDocuments(DocumentCriteria criteria, Pageable pageable) {
+        log.debug("REST request to get Documents by criteria: {}", criteria);
+        Page<DocumentMetadataDTO> page = documentQueryService.findByCriteria(criteria, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/documents");
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /documents?cursor=:cursor : get a page of the documents with keyset pagination.
+     * <p>
+     * Documents are ordered by id, or by person and id with {@code order=person}. The first page is requested with
+     * an empty cursor, and every full page gives the cursor of the next one in the X-Next-Cursor header and in a
+     * Link header. Every page costs the same, however deep, but there is no total count.
+     *
+     * @param cursor the cursor of the page, empty for the first page
+     * @param order "id" or "person"
+     * @param pageable the pagination information, only its size is used
+     * @return the ResponseEntity with status 200 (OK) and the list of documents in body, or with status 400 (Bad Request)
+     * if the cursor or the order is invalid
+     */
+    @GetMapping(value = "/documents", params = "cursor")
+    @Timed
+    public ResponseEntity<List<DocumentMetadataDTO>> getAllDocumentsAfter(@RequestParam String cursor, @RequestParam(defaultValue = "id") String order,
+            Pageable pageable) {
+        log.debug("REST request to get the Documents after cursor {} by {}", cursor, order);
+        PageRequest batch = PageRequest.of(0, pageable.getPageSize());
+        List<DocumentMetadataDTO> documents;
+        String nextCursor = null;
+        if ("person".equals(order)) {
+            long[] keys = decodeCursor(cursor, 2);
+            documents = documentRepository.findAllMetadataAfterByPerson(keys[0], keys[1], batch);
+            if (documents.size() == batch.getPageSize()) {
+                DocumentMetadataDTO last = documents.get(documents.size() - 1);
+                nextCursor = PaginationUtil.encodeCursor(last.getPersonId(), last.getId());
+            }
+        } else if ("id".equals(order)) {
+            documents = documentRepository.findAllMetadataAfter(decodeCursor(cursor, 1)[0], batch);
+            if (documents.size() == batch.getPageSize()) {
+                nextCursor = PaginationUtil.encodeCursor(documents.get(documents.size() - 1).getId());
+            }
+        } else {
+            throw new BadRequestAlertException("Invalid order " + order, ENTITY_NAME, "invalidorder");
+        }
+        HttpHeaders headers = PaginationUtil.generateCursorHttpHeaders(nextCursor, "/api/documents?order=" + order, batch.getPageSize());
+        return new ResponseEntity<>(documents, headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /documents/export : get the metadata of all the documents as newline-delimited JSON.
+     * <p>
+     * Each line holds the id, title, size, MIME type and person id of a document, in id order. The export is
+     * streamed to the response as the rows are read, its length is not known in advance.
+     *
+     * @param response the HTTP response the documents are written to, with status 200 (OK)
+     * @throws IOException if the documents cannot be written to the response
+     */
+    @GetMapping("/documents/export")
+    @Timed
+    public void exportDocuments(HttpServletResponse response) throws IOException {
+        log.debug("REST request to export all Documents");
+        response.setContentType(DocumentExportService.NDJSON_MIME_TYPE);
+        response.setCharacterEncoding("UTF-8");
+        documentExportService.writeNdjson(response.getOutputStream());
     }
 
     /**
      * GET  /documents/:id : get the "id" document.
+     * <p>
+     * The response has an ETag holding the version of the document and a Last-Modified header,
+     * a request with a matching If-None-Match or If-Modified-Since header gets no body.
      *
      * @param id the id of the document to retrieve
-     * @return the ResponseEntity with status 200 (OK) and with body the document, or with status 404 (Not Found)
+     * @return the ResponseEntity with status 200 (OK) and with body the document, or with status 304 (Not Modified),
+     * or with status 404 (Not Found)
      */
     @GetMapping("/documents/{id}")
-    public ResponseEntity<Document> getDocument(@PathVariable Long id) {
+    public ResponseEntity<DocumentMetadataDTO> getDocument(@PathVariable Long id) {
         log.debug("REST request to get Document : {}", id);
-        Optional<Document> document = documentRepository.findById(id);
-        return ResponseUtil.wrapOrNotFound(document);
+        Optional<DocumentMetadataDTO> document = documentRepository.findMetadataById(id);
+        HttpHeaders headers = new HttpHeaders();
+        document.ifPresent(d -> {
+            // checked against the request by Spring MVC, which answers 304 (Not Modified) without writing the body
+            if (d.getVersion() != null) {
+                headers.setETag("\"" + d.getVersion() + "\"");
+            }
+            if (d.getLastModifiedDate() != null) {
+                headers.setLastModified(d.getLastModifiedDate().toEpochMilli());
+            }
+        });
+        return ResponseUtil.wrapOrNotFound(document, headers);
     }
-    
+
+    /**
+     * GET  /documents/:id/$content : get the content of the "id" document.
+     * <p>
+     * The content is streamed from its blob with a fixed-size buffer. A single byte range can be requested
+     * with the Range header, optionally guarded by an If-Range header holding the ETag of the content.
+     * The ETag is the checksum of the content, so a request with a matching If-None-Match header is answered
+     * without reading the content. Every request is recorded as a read of the document, see {@link ContentTieringService}.
+     *
+     * @param id the id of the document whose content to retrieve
+     * @param request the HTTP request
+     * @param response the HTTP response the content is written to, with status 200 (OK), 206 (Partial Content),
+     * 304 (Not Modified), 416 (Requested Range Not Satisfiable) or 404 (Not Found)
+     * @throws IOException if the content cannot be written to the response
+     */
     @GetMapping("/documents/{id}/$content")
     @Timed
-    public ResponseEntity<byte[]> getDocumentContent(@PathVariable Long id) {
-        Document document = documentRepository.findOneById(id)
+    public void getDocumentContent(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.debug("REST request to get Document content : {}", id);
+        // a projection, the validators are checked without loading the content nor its payload
+        DocumentContentDTO document = documentRepository.findContentById(id)
             .orElseThrow(DocumentNotFoundException::new);
-        
+        long size = document.getSize();
+        // a content in the cold store is served from there, and moved back in the background
+        contentTieringService.recordAccess(document);
+        String eTag = document.getChecksum() != null ? "\"" + document.getChecksum() + "\"" : null;
+        long lastModified = document.getLastModifiedDate() != null ? document.getLastModifiedDate().toEpochMilli() : -1;
+        // sets the ETag and Last-Modified headers, and the 304 (Not Modified) status when the client is up to date
+        if (new ServletWebRequest(request, response).checkNotModified(eTag, lastModified)) {
+            return;
+        }
+
+        long start = 0;
+        long end = size - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(eTag))) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(range);
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(size);
+                    end = ranges.get(0).getRangeEnd(size);
+                    response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+                }
+            } catch (IllegalArgumentException e) {
+                log.debug("Unsatisfiable range {} for Document content : {}", range, id);
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                return;
+            }
+        }
+
+        response.setContentType(document.getMimeType() != null ? document.getMimeType() : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + document.getTitle() + "\"");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentLengthLong(end - start + 1);
+        if (!"HEAD".equals(request.getMethod())) {
+            contentService.copy(document.getContentId(), start, end - start + 1, response.getOutputStream());
+        }
+    }
+
+    /**
+     * GET  /documents/:id/$thumbnail : get the thumbnail of the content of the "id" document.
+     * <p>
+     * The ETag is derived from the checksum of the content, so the thumbnail can be cached by the browser for a
+     * year: a document whose payload changes gets another ETag.
+     * A missing thumbnail is rendered in the background, for the next request.
+     *
+     * @param id the id of the document whose thumbnail to retrieve
+     * @return the ResponseEntity with status 200 (OK) and with body the thumbnail, or with status 304 (Not Modified),
+     * or with status 404 (Not Found) if the document has no thumbnail
+     */
+    @GetMapping("/documents/{id}/$thumbnail")
+    @Timed
+    public ResponseEntity<byte[]> getDocumentThumbnail(@PathVariable Long id) {
+        log.debug("REST request to get Document thumbnail : {}", id);
+        DocumentContentDTO document = documentRepository.findContentById(id)
+            .orElseThrow(DocumentNotFoundException::new);
+        Long contentId = document.getContentId();
+        Optional<Thumbnail> thumbnail = renditionService.findThumbnail(contentId);
+        if (!thumbnail.isPresent()) {
+            renditionService.requestThumbnail(contentId);
+            throw new DocumentNotFoundException();
+        }
         return ResponseEntity.ok()
-            .contentType(MediaType.parseMediaType(document.getMimeType()))
-            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + document.getTitle() + "\"")
-            .body(document.retrieveContent());
+            .contentType(MediaType.parseMediaType(thumbnail.get().getMimeType()))
+            .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate())
+            .eTag("\"thumbnail-" + (document.getChecksum() != null ? document.getChecksum() : contentId) + "\"")
+            .body(thumbnail.get().getData());
     }
 
     /**
@@ -129,10 +357,15 @@ public class DocumentResource {
      * @return the ResponseEntity with status 200 (OK)
      */
     @DeleteMapping("/documents/{id}")
+    @Transactional
     public ResponseEntity<Void> deleteDocument(@PathVariable Long id) {
         log.debug("REST request to delete Document : {}", id);
+        Optional<Document> document = documentRepository.findById(id);
+        Optional<Long> contentId = document.map(Document::getContent).map(Content::getId);
         documentRepository.deleteById(id);
+        document.ifPresent(personSummaryService::documentDeleted);
         documentSearchRepository.deleteById(id);
+        contentId.ifPresent(contentService::release);
         return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert(ENTITY_NAME, id.toString())).build();
     }
 
@@ -144,11 +377,20 @@ public class DocumentResource {
      * @return the result of the search
      */
     @GetMapping("/_search/documents")
-    public List<Document> searchDocuments(@RequestParam String query) {
+    public List<DocumentMetadataDTO> searchDocuments(@RequestParam String query) {
         log.debug("REST request to search Documents for query {}", query);
         return StreamSupport
             .stream(documentSearchRepository.search(queryStringQuery(query)).spliterator(), false)
+            .map(DocumentMetadataDTO::new)
             .collect(Collectors.toList());
     }
 
+
+    private static long[] decodeCursor(String cursor, int length) {
+        try {
+            return PaginationUtil.decodeCursor(cursor, length);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor " + cursor, ENTITY_NAME, "invalidcursor");
+        }
+    }
 }
@@ -1,21 +1,44 @@
 package us.hennepin.mork.jhipster.application.web.rest;
+import com.codahale.metrics.annotation.Timed;
+import us.hennepin.mork.jhipster.application.domain.Document;
 import us.hennepin.mork.jhipster.application.domain.Person;
 import us.hennepin.mork.jhipster.application.repository.PersonRepository;
 import us.hennepin.mork.jhipster.application.repository.search.PersonSearchRepository;
+import us.hennepin.mork.jhipster.application.service.ContentService;
+import us.hennepin.mork.jhipster.application.service.DocumentArchiveService;
+import us.hennepin.mork.jhipster.application.service.DocumentIndexService;
+import us.hennepin.mork.jhipster.application.service.PersonSummaryService;
+import us.hennepin.mork.jhipster.application.service.dto.PersonSummaryDTO;
+import us.hennepin.mork.jhipster.application.service.mapper.DocumentMapper;
 import us.hennepin.mork.jhipster.application.web.rest.errors.BadRequestAlertException;
+import us.hennepin.mork.jhipster.application.web.rest.errors.PersonNotFoundException;
 import us.hennepin.mork.jhipster.application.web.rest.util.HeaderUtil;
+import us.hennepin.mork.jhipster.application.web.rest.util.PaginationUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -32,13 +55,35 @@ public class PersonResource {
 
     private static final String ENTITY_NAME = "person";
 
+    /**
+     * Value of the include parameter fetching the documents of the people, which are not returned otherwise.
+     */
+    private static final String INCLUDE_DOCUMENTS = "documents";
+
     private final PersonRepository personRepository;
 
     private final PersonSearchRepository personSearchRepository;
 
-    public PersonResource(PersonRepository personRepository, PersonSearchRepository personSearchRepository) {
+    private final DocumentMapper documentMapper;
+
+    private final ContentService contentService;
+
+    private final DocumentArchiveService documentArchiveService;
+
+    private final PersonSummaryService personSummaryService;
+
+    private final DocumentIndexService documentIndexService;
+
+    public PersonResource(PersonRepository personRepository, PersonSearchRepository personSearchRepository, DocumentMapper documentMapper,
+            ContentService contentService, DocumentArchiveService documentArchiveService, PersonSummaryService personSummaryService,
+            DocumentIndexService documentIndexService) {
         this.personRepository = personRepository;
         this.personSearchRepository = personSearchRepository;
+        this.documentMapper = documentMapper;
+        this.contentService = contentService;
+        this.documentArchiveService = documentArchiveService;
+        this.personSummaryService = personSummaryService;
+        this.documentIndexService = documentIndexService;
     }
 
     /**
@@ -84,29 +129,121 @@ public class PersonResource {
     }
 
     /**
-     * GET  /people : get all the people.
+     * GET  /people : get a page of the people.
+     * <p>
+     * Pages hold at most {@code spring.data.web.pageable.max-page-size} people, whatever the requested size.
      *
-     * @return the ResponseEntity with status 200 (OK) and the list of people in body
+     * @param pageable the pagination information
+     * @param include "documents" to return the documents of the people
+     * @return the ResponseEntity with status 200 (OK) and the list of people in body, or with status 400 (Bad Request)
+     * if the include parameter is invalid
      */
     @GetMapping("/people")
-    public List<Person> getAllPeople() {
-        log.debug("REST request to get all People");
-        return personRepository.findAll();
+    @Timed
+    public ResponseEntity<List<Person>> getAllPeople(Pageable pageable, @RequestParam(required = false) String include) {
+        log.debug("REST request to get a page of People");
+        boolean documents = includesDocuments(include);
+        Page<Person> page = personRepository.findAll(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/people");
+        return new ResponseEntity<>(documents ? withDocuments(page.getContent()) : page.getContent(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /people?cursor=:cursor : get a page of the people with keyset pagination, ordered by id.
+     * <p>
+     * The first page is requested with an empty cursor, and every full page gives the cursor of the next one
+     * in the X-Next-Cursor header and in a Link header.
+     *
+     * @param cursor the cursor of the page, empty for the first page
+     * @param pageable the pagination information, only its size is used
+     * @param include "documents" to return the documents of the people
+     * @return the ResponseEntity with status 200 (OK) and the list of people in body, or with status 400 (Bad Request)
+     * if the cursor or the include parameter is invalid
+     */
+    @GetMapping(value = "/people", params = "cursor")
+    @Timed
+    public ResponseEntity<List<Person>> getAllPeopleAfter(@RequestParam String cursor, Pageable pageable,
+            @RequestParam(required = false) String include) {
+        log.debug("REST request to get the People after cursor {}", cursor);
+        boolean documents = includesDocuments(include);
+        long after;
+        try {
+            after = PaginationUtil.decodeCursor(cursor, 1)[0];
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor " + cursor, ENTITY_NAME, "invalidcursor");
+        }
+        PageRequest batch = PageRequest.of(0, pageable.getPageSize());
+        List<Person> people = personRepository.findAllAfter(after, batch);
+        String nextCursor = people.size() == batch.getPageSize() ? PaginationUtil.encodeCursor(people.get(people.size() - 1).getId()) : null;
+        HttpHeaders headers = PaginationUtil.generateCursorHttpHeaders(nextCursor, "/api/people", batch.getPageSize());
+        return new ResponseEntity<>(documents ? withDocuments(people) : people, headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /people/summaries : get a page of the people, with the number, total size and last upload time of their
+     * documents instead of the documents.
+     *
+     * @param pageable the pagination information
+     * @return the ResponseEntity with status 200 (OK) and the list of summaries in body
+     */
+    @GetMapping("/people/summaries")
+    @Timed
+    public ResponseEntity<List<PersonSummaryDTO>> getAllPersonSummaries(Pageable pageable) {
+        log.debug("REST request to get a page of Person summaries");
+        Page<PersonSummaryDTO> page = personRepository.findAllSummaries(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/people/summaries");
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /people/:id/summary : get the number, total size and last upload time of the documents of the "id" person.
+     *
+     * @param id the id of the person to retrieve
+     * @return the ResponseEntity with status 200 (OK) and with body the summary, or with status 404 (Not Found)
+     */
+    @GetMapping("/people/{id}/summary")
+    @Timed
+    public ResponseEntity<PersonSummaryDTO> getPersonSummary(@PathVariable Long id) {
+        log.debug("REST request to get the summary of Person : {}", id);
+        return ResponseUtil.wrapOrNotFound(personRepository.findSummaryById(id));
     }
 
     /**
      * GET  /people/:id : get the "id" person.
      *
      * @param id the id of the person to retrieve
-     * @return the ResponseEntity with status 200 (OK) and with body the person, or with status 404 (Not Found)
+     * @param include "documents" to return the documents of the person
+     * @return the ResponseEntity with status 200 (OK) and with body the person, or with status 404 (Not Found),
+     * or with status 400 (Bad Request) if the include parameter is invalid
      */
     @GetMapping("/people/{id}")
-    public ResponseEntity<Person> getPerson(@PathVariable Long id) {
+    public ResponseEntity<Person> getPerson(@PathVariable Long id, @RequestParam(required = false) String include) {
         log.debug("REST request to get Person : {}", id);
-        Optional<Person> person = personRepository.findById(id);
+        Optional<Person> person = includesDocuments(include) ? personRepository.findOneWithDocumentsById(id) : personRepository.findById(id);
         return ResponseUtil.wrapOrNotFound(person);
     }
 
+    /**
+     * GET  /people/:id/documents.zip : get all the documents of the "id" person as a ZIP archive.
+     * <p>
+     * The archive is streamed to the response as it is written, its length is not known in advance.
+     *
+     * @param id the id of the person whose documents to retrieve
+     * @param response the HTTP response the archive is written to, with status 200 (OK) or 404 (Not Found)
+     * @throws IOException if a content cannot be read or the archive cannot be written to the response
+     */
+    @GetMapping("/people/{id}/documents.zip")
+    @Timed
+    public void getPersonDocumentsZip(@PathVariable Long id, HttpServletResponse response) throws IOException {
+        log.debug("REST request to get the Documents of Person : {} as a ZIP archive", id);
+        if (!personRepository.existsById(id)) {
+            throw new PersonNotFoundException();
+        }
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"person-" + id + "-documents.zip\"");
+        documentArchiveService.writeZip(id, response.getOutputStream());
+    }
+
     /**
      * DELETE  /people/:id : delete the "id" person.
      *
@@ -114,10 +251,18 @@ public class PersonResource {
      * @return the ResponseEntity with status 200 (OK)
      */
     @DeleteMapping("/people/{id}")
+    @Transactional
     public ResponseEntity<Void> deletePerson(@PathVariable Long id) {
         log.debug("REST request to delete Person : {}", id);
+        Set<Long> contentIds = personRepository.findOneWithDocumentsById(id)
+            .map(person -> person.getDocuments().stream()
+                .filter(document -> document.getContent() != null)
+                .map(document -> document.getContent().getId())
+                .collect(Collectors.toSet()))
+            .orElse(Collections.emptySet());
         personRepository.deleteById(id);
         personSearchRepository.deleteById(id);
+        contentIds.forEach(contentService::release);
         return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert(ENTITY_NAME, id.toString())).build();
     }
 
@@ -135,12 +280,25 @@ public class PersonResource {
             .stream(personSearchRepository.search(queryStringQuery(query)).spliterator(), false)
             .collect(Collectors.toList());
     }
-    
+
+    /**
+     * POST  /v2/people : Create a new person with its documents.
+     * <p>
+     * Every file is streamed into its content, so the heap used by an upload does not depend on the file sizes.
+     * The person and all its contents are persisted in a single transaction, then its documents are indexed.
+     *
+     * @param person the person to create
+     * @param files the documents of the person
+     * @return the ResponseEntity with status 201 (Created) and with body the new person, or with status 400 (Bad Request) if the person has already an ID
+     * @throws URISyntaxException if the Location URI syntax is incorrect
+     * @throws IOException if a file cannot be read
+     */
     @PostMapping("/v2/people")
     @Timed
+    @Transactional
     public ResponseEntity<Person> createPerson(@Valid @RequestPart Person person, @RequestPart List<MultipartFile> files) throws URISyntaxException, IOException {
         log.debug("REST request to save Person : {}", person);
-        if (person.getID() !=null) {
+        if (person.getId() != null) {
             throw new BadRequestAlertException("A new person cannot already have an ID", ENTITY_NAME, "id exists");
         }
         
@@ -148,9 +306,39 @@ public class PersonResource {
         documents.forEach(person::addDocument);
         
         Person result = personRepository.save(person);
+        personSummaryService.documentsCreated(result.getId(), documents);
+        documentIndexService.indexAttached(documents);
         return ResponseEntity.created(new URI("/api/people/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(ENTITY_NAME, result.getId().toString()))
             .body(result);
     }
 
+    /**
+     * Check the include parameter of a request, the documents are the only relation that can be included.
+     *
+     * @throws BadRequestAlertException if the parameter names anything else
+     */
+    private static boolean includesDocuments(String include) {
+        if (include == null || include.isEmpty()) {
+            return false;
+        }
+        for (String relation : include.split(",")) {
+            if (!INCLUDE_DOCUMENTS.equals(relation.trim())) {
+                throw new BadRequestAlertException("Invalid include " + include, ENTITY_NAME, "invalidinclude");
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Load the given people again, with their documents fetched by a single query, in the same order.
+     */
+    private List<Person> withDocuments(List<Person> people) {
+        if (people.isEmpty()) {
+            return people;
+        }
+        Map<Long, Person> fetched = personRepository.findAllWithDocumentsByIdIn(people.stream().map(Person::getId).collect(Collectors.toList()))
+            .stream().collect(Collectors.toMap(Person::getId, Function.identity(), (person, duplicate) -> person));
+        return people.stream().map(person -> fetched.getOrDefault(person.getId(), person)).collect(Collectors.toList());
+    }
 }
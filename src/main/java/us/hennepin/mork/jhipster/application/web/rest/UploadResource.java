@@ -0,0 +1,146 @@
+package us.hennepin.mork.jhipster.application.web.rest;
+import com.codahale.metrics.annotation.Timed;
+import us.hennepin.mork.jhipster.application.domain.Document;
+import us.hennepin.mork.jhipster.application.domain.UploadSession;
+import us.hennepin.mork.jhipster.application.service.UploadService;
+import us.hennepin.mork.jhipster.application.web.rest.errors.BadRequestAlertException;
+import us.hennepin.mork.jhipster.application.web.rest.util.HeaderUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.Valid;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Optional;
+
+/**
+ * REST controller for resumable uploads of Documents.
+ * <p>
+ * An upload is started with its title, MIME type, size, person and optionally its SHA-256 checksum. Its payload
+ * is then sent in chunks with {@code PUT /uploads/:id}, each chunk carrying its offset in the {@value #UPLOAD_OFFSET}
+ * header. After a failure, the client gets the offset to resume from with {@code GET /uploads/:id}. Once all the
+ * bytes are received, {@code POST /uploads/:id/$complete} creates the document.
+ */
+@RestController
+@RequestMapping("/api")
+public class UploadResource {
+
+    public static final String UPLOAD_OFFSET = "Upload-Offset";
+
+    private final Logger log = LoggerFactory.getLogger(UploadResource.class);
+
+    private static final String ENTITY_NAME = "uploadSession";
+
+    private final UploadService uploadService;
+
+    public UploadResource(UploadService uploadService) {
+        this.uploadService = uploadService;
+    }
+
+    /**
+     * POST  /uploads : Start a resumable upload.
+     *
+     * @param uploadSession the upload to start
+     * @return the ResponseEntity with status 201 (Created) and with body the new upload, or with status 400 (Bad Request) if the upload has already an ID
+     * @throws URISyntaxException if the Location URI syntax is incorrect
+     * @throws IOException if the upload cannot be started
+     */
+    @PostMapping("/uploads")
+    @Timed
+    public ResponseEntity<UploadSession> createUpload(@Valid @RequestBody UploadSession uploadSession) throws URISyntaxException, IOException {
+        log.debug("REST request to start UploadSession : {}", uploadSession);
+        if (uploadSession.getId() != null) {
+            throw new BadRequestAlertException("A new upload session cannot already have an ID", ENTITY_NAME, "idexists");
+        }
+        UploadSession result = uploadService.create(uploadSession);
+        return ResponseEntity.created(new URI("/api/uploads/" + result.getId()))
+            .headers(HeaderUtil.createEntityCreationAlert(ENTITY_NAME, result.getId().toString()))
+            .header(UPLOAD_OFFSET, result.getReceived().toString())
+            .body(result);
+    }
+
+    /**
+     * GET  /uploads/:id : get the "id" upload, with the offset to resume it from.
+     *
+     * @param id the id of the upload to retrieve
+     * @return the ResponseEntity with status 200 (OK) and with body the upload, or with status 404 (Not Found)
+     */
+    @GetMapping("/uploads/{id}")
+    @Timed
+    public ResponseEntity<UploadSession> getUpload(@PathVariable Long id) {
+        log.debug("REST request to get UploadSession : {}", id);
+        return uploadService.findOne(id)
+            .map(result -> ResponseEntity.ok().header(UPLOAD_OFFSET, result.getReceived().toString()).body(result))
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * PUT  /uploads/:id : write a chunk of the "id" upload.
+     *
+     * @param id the id of the upload
+     * @param offset the offset of the chunk, which must be the number of bytes received so far
+     * @param request the HTTP request whose body is the chunk
+     * @return the ResponseEntity with status 200 (OK) and with body the upload with its new offset,
+     * or with status 404 (Not Found), or with status 409 (Conflict) if the offset is not the expected one
+     * @throws IOException if the chunk cannot be read or written
+     */
+    @PutMapping("/uploads/{id}")
+    @Timed
+    public ResponseEntity<UploadSession> appendUpload(@PathVariable Long id, @RequestHeader(UPLOAD_OFFSET) long offset,
+            HttpServletRequest request) throws IOException {
+        log.debug("REST request to write UploadSession {} at offset {}", id, offset);
+        Optional<UploadSession> uploadSession = uploadService.findOne(id);
+        if (!uploadSession.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        UploadSession result = uploadService.append(uploadSession.get(), offset, request.getInputStream());
+        return ResponseEntity.ok()
+            .header(UPLOAD_OFFSET, result.getReceived().toString())
+            .body(result);
+    }
+
+    /**
+     * POST  /uploads/:id/$complete : turn the fully received "id" upload into a document.
+     *
+     * @param id the id of the upload
+     * @return the ResponseEntity with status 201 (Created) and with body the new document, or with status 404 (Not Found),
+     * or with status 400 (Bad Request) if the upload is incomplete or does not match its checksum
+     * @throws URISyntaxException if the Location URI syntax is incorrect
+     * @throws IOException if the upload cannot be read
+     */
+    @PostMapping("/uploads/{id}/$complete")
+    @Timed
+    public ResponseEntity<Document> completeUpload(@PathVariable Long id) throws URISyntaxException, IOException {
+        log.debug("REST request to complete UploadSession : {}", id);
+        Optional<UploadSession> uploadSession = uploadService.findOne(id);
+        if (!uploadSession.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        Document result = uploadService.complete(uploadSession.get());
+        return ResponseEntity.created(new URI("/api/documents/" + result.getId()))
+            .headers(HeaderUtil.createEntityCreationAlert("document", result.getId().toString()))
+            .body(result);
+    }
+
+    /**
+     * DELETE  /uploads/:id : abort the "id" upload.
+     *
+     * @param id the id of the upload to abort
+     * @return the ResponseEntity with status 200 (OK), or with status 404 (Not Found)
+     */
+    @DeleteMapping("/uploads/{id}")
+    @Timed
+    public ResponseEntity<Void> deleteUpload(@PathVariable Long id) {
+        log.debug("REST request to abort UploadSession : {}", id);
+        Optional<UploadSession> uploadSession = uploadService.findOne(id);
+        if (!uploadSession.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        uploadService.abort(uploadSession.get());
+        return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert(ENTITY_NAME, id.toString())).build();
+    }
+}
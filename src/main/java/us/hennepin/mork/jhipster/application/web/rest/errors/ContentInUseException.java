@@ -0,0 +1,16 @@
+package us.hennepin.mork.jhipster.application.web.rest.errors;
+
+import org.zalando.problem.AbstractThrowableProblem;
+import org.zalando.problem.Status;
+
+/**
+ * Thrown when a content to delete is still referenced by documents.
+ */
+public class ContentInUseException extends AbstractThrowableProblem {
+
+    private static final long serialVersionUID = 1L;
+
+    public ContentInUseException() {
+        super(ErrorConstants.DEFAULT_TYPE, "Content in use", Status.CONFLICT, "The content is still referenced by documents");
+    }
+}
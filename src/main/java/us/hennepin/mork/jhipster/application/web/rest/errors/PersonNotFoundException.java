@@ -0,0 +1,12 @@
+package us.hennepin.mork.jhipster.application.web.rest.errors;
+
+import org.zalando.problem.AbstractThrowableProblem;
+import org.zalando.problem.Status;
+
+public class PersonNotFoundException extends AbstractThrowableProblem {
+  
+  private static final long serialVersionUID = 1L;
+  public PersonNotFoundException() {
+    super(null, "Person not found", Status.NOT_FOUND);
+  }
+}
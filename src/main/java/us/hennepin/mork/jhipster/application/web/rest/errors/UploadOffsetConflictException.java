@@ -0,0 +1,16 @@
+package us.hennepin.mork.jhipster.application.web.rest.errors;
+
+import org.zalando.problem.AbstractThrowableProblem;
+import org.zalando.problem.Status;
+
+/**
+ * Thrown when a chunk of a resumable upload does not start at the offset the server expects.
+ */
+public class UploadOffsetConflictException extends AbstractThrowableProblem {
+
+    private static final long serialVersionUID = 1L;
+
+    public UploadOffsetConflictException(long expectedOffset) {
+        super(ErrorConstants.DEFAULT_TYPE, "Upload offset conflict", Status.CONFLICT, "The next chunk must start at offset " + expectedOffset);
+    }
+}
@@ -6,6 +6,10 @@ import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.stream.Collectors;
 
 /**
  * Utility class for handling pagination.
@@ -13,9 +17,15 @@ import java.net.URLEncoder;
  * <p>
  * Pagination uses the same principles as the <a href="https://developer.github.com/v3/#pagination">GitHub API</a>,
  * and follow <a href="http://tools.ietf.org/html/rfc5988">RFC 5988 (Link header)</a>.
+ * <p>
+ * Keyset pagination pages through a table ordered by its keys: each page gives the cursor of the next one,
+ * an opaque encoding of the keys of its last element, so that any page is read from an index without
+ * skipping the preceding rows.
  */
 public final class PaginationUtil {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private PaginationUtil() {
     }
 
@@ -73,4 +83,48 @@ public final class PaginationUtil {
         headers.add(HttpHeaders.LINK, link);
         return headers;
     }
+
+    /**
+     * Generate the headers of a page of a keyset pagination.
+     *
+     * @param nextCursor the cursor of the next page, null if this page is the last one
+     * @param baseUrl the URL of the listing, the cursor and size are added to it
+     * @param size the size of the pages
+     * @return the headers, with the next cursor and a link to the next page if there is one
+     */
+    public static HttpHeaders generateCursorHttpHeaders(String nextCursor, String baseUrl, int size) {
+        HttpHeaders headers = new HttpHeaders();
+        if (nextCursor != null) {
+            headers.add(NEXT_CURSOR_HEADER, nextCursor);
+            String uri = UriComponentsBuilder.fromUriString(baseUrl).queryParam("cursor", nextCursor).queryParam("size", size).toUriString();
+            headers.add(HttpHeaders.LINK, "<" + uri + ">; rel=\"next\"");
+        }
+        return headers;
+    }
+
+    /**
+     * @param keys the keys of the last element of a page
+     * @return the cursor of the next page
+     */
+    public static String encodeCursor(long... keys) {
+        String value = Arrays.stream(keys).mapToObj(Long::toString).collect(Collectors.joining(","));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor a cursor, empty for the first page
+     * @param length the number of keys in the cursor
+     * @return the keys of the last element of the previous page, zeros for the first page
+     * @throws IllegalArgumentException if the cursor is not one returned by {@link #encodeCursor(long...)}
+     */
+    public static long[] decodeCursor(String cursor, int length) {
+        if (cursor.isEmpty()) {
+            return new long[length];
+        }
+        String[] values = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(",");
+        if (values.length != length) {
+            throw new IllegalArgumentException("Expected " + length + " keys in cursor " + cursor);
+        }
+        return Arrays.stream(values).mapToLong(Long::parseLong).toArray();
+    }
 }
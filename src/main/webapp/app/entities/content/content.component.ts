@@ -1,12 +1,13 @@
 import { Component, OnInit, OnDestroy } from '@angular/core';
-import { HttpErrorResponse, HttpResponse } from '@angular/common/http';
-import { ActivatedRoute } from '@angular/router';
+import { HttpErrorResponse, HttpHeaders, HttpResponse } from '@angular/common/http';
+import { ActivatedRoute, Router } from '@angular/router';
 import { Subscription } from 'rxjs';
 import { filter, map } from 'rxjs/operators';
-import { JhiEventManager, JhiAlertService, JhiDataUtils } from 'ng-jhipster';
+import { JhiEventManager, JhiParseLinks, JhiAlertService, JhiDataUtils } from 'ng-jhipster';
 
 import { IContent } from 'app/shared/model/content.model';
 import { AccountService } from 'app/core';
+import { ITEMS_PER_PAGE } from 'app/shared';
 import { ContentService } from './content.service';
 
 @Component({
@@ -18,15 +19,32 @@ export class ContentComponent implements OnInit, OnDestroy {
     currentAccount: any;
     eventSubscriber: Subscription;
     currentSearch: string;
+    routeData: any;
+    links: any;
+    totalItems: any;
+    itemsPerPage: any;
+    page: any;
+    predicate: any;
+    previousPage: any;
+    reverse: any;
 
     constructor(
         protected contentService: ContentService,
         protected jhiAlertService: JhiAlertService,
         protected dataUtils: JhiDataUtils,
         protected eventManager: JhiEventManager,
+        protected parseLinks: JhiParseLinks,
         protected activatedRoute: ActivatedRoute,
+        protected router: Router,
         protected accountService: AccountService
     ) {
+        this.itemsPerPage = ITEMS_PER_PAGE;
+        this.routeData = this.activatedRoute.data.subscribe(data => {
+            this.page = data.pagingParams.page;
+            this.previousPage = data.pagingParams.page;
+            this.reverse = data.pagingParams.ascending;
+            this.predicate = data.pagingParams.predicate;
+        });
         this.currentSearch =
             this.activatedRoute.snapshot && this.activatedRoute.snapshot.params['search']
                 ? this.activatedRoute.snapshot.params['search']
@@ -47,30 +65,46 @@ export class ContentComponent implements OnInit, OnDestroy {
             return;
         }
         this.contentService
-            .query()
-            .pipe(
-                filter((res: HttpResponse<IContent[]>) => res.ok),
-                map((res: HttpResponse<IContent[]>) => res.body)
-            )
+            .query({
+                page: this.page - 1,
+                size: this.itemsPerPage,
+                sort: this.sort()
+            })
             .subscribe(
-                (res: IContent[]) => {
-                    this.contents = res;
-                    this.currentSearch = '';
-                },
+                (res: HttpResponse<IContent[]>) => this.paginateContents(res.body, res.headers),
                 (res: HttpErrorResponse) => this.onError(res.message)
             );
     }
 
+    loadPage(page: number) {
+        if (page !== this.previousPage) {
+            this.previousPage = page;
+            this.transition();
+        }
+    }
+
+    transition() {
+        this.router.navigate(['/content'], {
+            queryParams: {
+                page: this.page,
+                sort: this.predicate + ',' + (this.reverse ? 'asc' : 'desc')
+            }
+        });
+        this.loadAll();
+    }
+
     search(query) {
         if (!query) {
             return this.clear();
         }
         this.currentSearch = query;
+        this.page = 1;
         this.loadAll();
     }
 
     clear() {
         this.currentSearch = '';
+        this.page = 1;
         this.loadAll();
     }
 
@@ -84,6 +118,7 @@ export class ContentComponent implements OnInit, OnDestroy {
 
     ngOnDestroy() {
         this.eventManager.destroy(this.eventSubscriber);
+        this.routeData.unsubscribe();
     }
 
     trackId(index: number, item: IContent) {
@@ -102,6 +137,20 @@ export class ContentComponent implements OnInit, OnDestroy {
         this.eventSubscriber = this.eventManager.subscribe('contentListModification', response => this.loadAll());
     }
 
+    sort() {
+        const result = [this.predicate + ',' + (this.reverse ? 'asc' : 'desc')];
+        if (this.predicate !== 'id') {
+            result.push('id');
+        }
+        return result;
+    }
+
+    protected paginateContents(data: IContent[], headers: HttpHeaders) {
+        this.links = this.parseLinks.parse(headers.get('link'));
+        this.totalItems = parseInt(headers.get('X-Total-Count'), 10);
+        this.contents = data;
+    }
+
     protected onError(errorMessage: string) {
         this.jhiAlertService.error(errorMessage, null, null);
     }
@@ -1,5 +1,6 @@
 import { Injectable } from '@angular/core';
 import { HttpResponse } from '@angular/common/http';
+import { JhiResolvePagingParams } from 'ng-jhipster';
 import { Resolve, ActivatedRouteSnapshot, RouterStateSnapshot, Routes } from '@angular/router';
 import { UserRouteAccessService } from 'app/core';
 import { Observable, of } from 'rxjs';
@@ -32,8 +33,12 @@ export const documentRoute: Routes = [
     {
         path: '',
         component: DocumentComponent,
+        resolve: {
+            pagingParams: JhiResolvePagingParams
+        },
         data: {
             authorities: ['ROLE_USER'],
+            defaultSort: 'id,asc',
             pageTitle: 'Documents'
         },
         canActivate: [UserRouteAccessService]
@@ -1,12 +1,13 @@
 import { Component, OnInit, OnDestroy } from '@angular/core';
-import { HttpErrorResponse, HttpResponse } from '@angular/common/http';
-import { ActivatedRoute } from '@angular/router';
+import { HttpErrorResponse, HttpHeaders, HttpResponse } from '@angular/common/http';
+import { ActivatedRoute, Router } from '@angular/router';
 import { Subscription } from 'rxjs';
 import { filter, map } from 'rxjs/operators';
-import { JhiEventManager, JhiAlertService } from 'ng-jhipster';
+import { JhiEventManager, JhiParseLinks, JhiAlertService } from 'ng-jhipster';
 
 import { IPerson } from 'app/shared/model/person.model';
 import { AccountService } from 'app/core';
+import { ITEMS_PER_PAGE } from 'app/shared';
 import { PersonService } from './person.service';
 
 @Component({
@@ -18,14 +19,31 @@ export class PersonComponent implements OnInit, OnDestroy {
     currentAccount: any;
     eventSubscriber: Subscription;
     currentSearch: string;
+    routeData: any;
+    links: any;
+    totalItems: any;
+    itemsPerPage: any;
+    page: any;
+    predicate: any;
+    previousPage: any;
+    reverse: any;
 
     constructor(
         protected personService: PersonService,
         protected jhiAlertService: JhiAlertService,
         protected eventManager: JhiEventManager,
+        protected parseLinks: JhiParseLinks,
         protected activatedRoute: ActivatedRoute,
+        protected router: Router,
         protected accountService: AccountService
     ) {
+        this.itemsPerPage = ITEMS_PER_PAGE;
+        this.routeData = this.activatedRoute.data.subscribe(data => {
+            this.page = data.pagingParams.page;
+            this.previousPage = data.pagingParams.page;
+            this.reverse = data.pagingParams.ascending;
+            this.predicate = data.pagingParams.predicate;
+        });
         this.currentSearch =
             this.activatedRoute.snapshot && this.activatedRoute.snapshot.params['search']
                 ? this.activatedRoute.snapshot.params['search']
@@ -46,30 +64,46 @@ export class PersonComponent implements OnInit, OnDestroy {
             return;
         }
         this.personService
-            .query()
-            .pipe(
-                filter((res: HttpResponse<IPerson[]>) => res.ok),
-                map((res: HttpResponse<IPerson[]>) => res.body)
-            )
+            .query({
+                page: this.page - 1,
+                size: this.itemsPerPage,
+                sort: this.sort()
+            })
             .subscribe(
-                (res: IPerson[]) => {
-                    this.people = res;
-                    this.currentSearch = '';
-                },
+                (res: HttpResponse<IPerson[]>) => this.paginatePeople(res.body, res.headers),
                 (res: HttpErrorResponse) => this.onError(res.message)
             );
     }
 
+    loadPage(page: number) {
+        if (page !== this.previousPage) {
+            this.previousPage = page;
+            this.transition();
+        }
+    }
+
+    transition() {
+        this.router.navigate(['/person'], {
+            queryParams: {
+                page: this.page,
+                sort: this.predicate + ',' + (this.reverse ? 'asc' : 'desc')
+            }
+        });
+        this.loadAll();
+    }
+
     search(query) {
         if (!query) {
             return this.clear();
         }
         this.currentSearch = query;
+        this.page = 1;
         this.loadAll();
     }
 
     clear() {
         this.currentSearch = '';
+        this.page = 1;
         this.loadAll();
     }
 
@@ -83,6 +117,7 @@ export class PersonComponent implements OnInit, OnDestroy {
 
     ngOnDestroy() {
         this.eventManager.destroy(this.eventSubscriber);
+        this.routeData.unsubscribe();
     }
 
     trackId(index: number, item: IPerson) {
@@ -93,6 +128,20 @@ export class PersonComponent implements OnInit, OnDestroy {
         this.eventSubscriber = this.eventManager.subscribe('personListModification', response => this.loadAll());
     }
 
+    sort() {
+        const result = [this.predicate + ',' + (this.reverse ? 'asc' : 'desc')];
+        if (this.predicate !== 'id') {
+            result.push('id');
+        }
+        return result;
+    }
+
+    protected paginatePeople(data: IPerson[], headers: HttpHeaders) {
+        this.links = this.parseLinks.parse(headers.get('link'));
+        this.totalItems = parseInt(headers.get('X-Total-Count'), 10);
+        this.people = data;
+    }
+
     protected onError(errorMessage: string) {
         this.jhiAlertService.error(errorMessage, null, null);
     }
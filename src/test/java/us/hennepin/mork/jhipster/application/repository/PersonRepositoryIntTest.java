@@ -0,0 +1,55 @@
+package us.hennepin.mork.jhipster.application.repository;
+
+import us.hennepin.mork.jhipster.application.JhipsterDocumentApplicationApp;
+import us.hennepin.mork.jhipster.application.domain.Document;
+import us.hennepin.mork.jhipster.application.domain.Person;
+import us.hennepin.mork.jhipster.application.web.rest.PersonResourceIntTest;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the PersonRepository.
+ *
+ * @see PersonRepository
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = JhipsterDocumentApplicationApp.class)
+@Transactional
+public class PersonRepositoryIntTest {
+
+    private static final int DOCUMENT_COUNT = 20;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    public void assertThatDocumentsAreInsertedInBatches() {
+        Person person = PersonResourceIntTest.createEntity(em);
+        for (int i = 0; i < DOCUMENT_COUNT; i++) {
+            person.addDocument(new Document().title("document-" + i).size(1L).mimeType("text/plain"));
+        }
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        personRepository.saveAndFlush(person);
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(DOCUMENT_COUNT + 1);
+        // one insert per table, and at most two blocks of identifiers per table, each read and updated
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2 + 2 * 2 * 2);
+        assertThat(person.getDocuments()).allSatisfy(document -> assertThat(document.getId()).isNotNull());
+    }
+}
@@ -0,0 +1,67 @@
+package us.hennepin.mork.jhipster.application.service;
+
+import us.hennepin.mork.jhipster.application.JhipsterDocumentApplicationApp;
+import us.hennepin.mork.jhipster.application.domain.Content;
+import us.hennepin.mork.jhipster.application.domain.Document;
+import us.hennepin.mork.jhipster.application.repository.ContentRepository;
+import us.hennepin.mork.jhipster.application.repository.DocumentRepository;
+import us.hennepin.mork.jhipster.application.web.rest.DocumentResourceIntTest;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the ContentGarbageCollectionService.
+ *
+ * @see ContentGarbageCollectionService
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = JhipsterDocumentApplicationApp.class)
+@Transactional
+public class ContentGarbageCollectionServiceIntTest {
+
+    @Autowired
+    private ContentGarbageCollectionService contentGarbageCollectionService;
+
+    @Autowired
+    private ContentRepository contentRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    public void assertThatOnlyOrphanContentsAreDeleted() {
+        byte[] orphanData = "orphan".getBytes(StandardCharsets.UTF_8);
+        Content orphan = new Content().data(orphanData).dataContentType("text/plain");
+        orphan.setCreatedDate(Instant.now().minus(Duration.ofDays(1)));
+        contentRepository.saveAndFlush(orphan);
+        // its upload may still be in flight
+        Content recent = contentRepository.saveAndFlush(new Content().data(orphanData).dataContentType("text/plain"));
+        Document document = DocumentResourceIntTest.createEntity(em);
+        Content referenced = new Content().data("referenced".getBytes(StandardCharsets.UTF_8)).dataContentType("text/plain");
+        referenced.setCreatedDate(Instant.now().minus(Duration.ofDays(1)));
+        document.setContent(referenced);
+        documentRepository.saveAndFlush(document);
+
+        long reclaimed = contentGarbageCollectionService.collect();
+
+        assertThat(reclaimed).isGreaterThanOrEqualTo(orphanData.length);
+        assertThat(contentRepository.existsById(orphan.getId())).isFalse();
+        assertThat(contentRepository.existsById(recent.getId())).isTrue();
+        assertThat(contentRepository.existsById(document.getContent().getId())).isTrue();
+    }
+}
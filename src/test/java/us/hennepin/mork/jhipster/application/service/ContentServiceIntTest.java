@@ -0,0 +1,225 @@
+package us.hennepin.mork.jhipster.application.service;
+
+import us.hennepin.mork.jhipster.application.JhipsterDocumentApplicationApp;
+import us.hennepin.mork.jhipster.application.config.ApplicationProperties;
+import us.hennepin.mork.jhipster.application.domain.Content;
+import us.hennepin.mork.jhipster.application.domain.Document;
+import us.hennepin.mork.jhipster.application.repository.ContentRepository;
+import us.hennepin.mork.jhipster.application.repository.DocumentRepository;
+import us.hennepin.mork.jhipster.application.service.store.FileSystemContentStore;
+import us.hennepin.mork.jhipster.application.web.rest.DocumentResourceIntTest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for the ContentService.
+ *
+ * @see ContentService
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = JhipsterDocumentApplicationApp.class)
+@Transactional
+public class ContentServiceIntTest {
+
+    private static final byte[] DATA = "hello world".getBytes(StandardCharsets.UTF_8);
+
+    private static final String DATA_SHA_256 = "b94d27b9934d3e08a52e52d7da7dabfac484efe37a5380ee9088f7ace2efcde9";
+
+    @Autowired
+    private ContentService contentService;
+
+    @Autowired
+    private ContentRepository contentRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private FileSystemContentStore fileSystemContentStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    public void assertThatStoreStreamsPayloadWithChecksum() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("files", "hello.txt", "text/plain", DATA);
+
+        Content content = contentService.store(file, file.getContentType());
+        em.clear();
+
+        Content stored = contentRepository.findById(content.getId()).get();
+        assertThat(stored.getSize()).isEqualTo(DATA.length);
+        assertThat(stored.getChecksum()).isEqualTo(DATA_SHA_256);
+        assertThat(stored.getDataContentType()).isEqualTo("text/plain");
+        assertThat(stored.getData()).isEqualTo(DATA);
+    }
+
+    @Test
+    public void assertThatStoreDeduplicatesIdenticalPayloads() throws Exception {
+        // new contents are committed on their own, the payload must not have been stored by another test
+        byte[] data = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        int databaseSizeBeforeStore = contentRepository.findAll().size();
+
+        Content first = contentService.store(new MockMultipartFile("files", "a.txt", "text/plain", data), "text/plain");
+        Content second = contentService.store(new MockMultipartFile("files", "b.txt", "text/plain", data), "text/plain");
+
+        assertThat(second.getId()).isEqualTo(first.getId());
+        assertThat(contentRepository.findAll()).hasSize(databaseSizeBeforeStore + 1);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void assertThatConcurrentStoresOfAPayloadShareTheContent() throws Exception {
+        byte[] data = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        CountDownLatch start = new CountDownLatch(1);
+        Callable<Long> store = () -> {
+            start.await();
+            return contentService.store(new ByteArrayResource(data), "text/plain").getId();
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Set<Long> ids = new HashSet<>();
+        try {
+            Future<Long> first = executor.submit(store);
+            Future<Long> second = executor.submit(store);
+            start.countDown();
+            ids.add(first.get());
+            ids.add(second.get());
+
+            assertThat(ids).hasSize(1);
+        } finally {
+            executor.shutdown();
+            ids.forEach(contentService::release);
+        }
+    }
+
+    @Test
+    public void assertThatReleaseOnlyDeletesUnreferencedContent() throws Exception {
+        Content content = contentService.store(new MockMultipartFile("files", "a.txt", "text/plain", DATA), "text/plain");
+        Document document = DocumentResourceIntTest.createEntity(em);
+        document.setContent(content);
+        documentRepository.saveAndFlush(document);
+
+        contentService.release(content.getId());
+        assertThat(contentRepository.existsById(content.getId())).isTrue();
+
+        documentRepository.delete(document);
+        contentService.release(content.getId());
+        assertThat(contentRepository.existsById(content.getId())).isFalse();
+    }
+
+    @Test
+    public void assertThatReleaseAllCountsOnlyDeletedContents() throws Exception {
+        byte[] data = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        Content orphan = contentService.store(new MockMultipartFile("files", "a.txt", "text/plain", data), "text/plain");
+        Content referenced = contentService.store(new MockMultipartFile("files", "b.txt", "text/plain", DATA), "text/plain");
+        Document document = DocumentResourceIntTest.createEntity(em);
+        document.setContent(referenced);
+        documentRepository.saveAndFlush(document);
+
+        ContentService.Released released = contentService.releaseAll(
+            Arrays.asList(orphan.getId(), referenced.getId(), orphan.getId(), Long.MAX_VALUE));
+
+        assertThat(released.getCount()).isEqualTo(1);
+        assertThat(released.getBytes()).isEqualTo(data.length);
+        assertThat(contentRepository.existsById(referenced.getId())).isTrue();
+    }
+
+    @Test
+    public void assertThatFileSystemStoreCopiesRanges() throws Exception {
+        Content content = new Content().dataContentType("text/plain").checksum(DATA_SHA_256).size((long) DATA.length);
+        fileSystemContentStore.save(content, new ByteArrayResource(DATA));
+        assertThat(content.getStore()).isEqualTo(FileSystemContentStore.NAME);
+        assertThat(content.getBlob()).isNull();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        contentService.copy(content.getId(), 6, 5, out);
+        assertThat(out.toString("UTF-8")).isEqualTo("world");
+    }
+
+    @Test
+    public void assertThatFileSystemStoreStopsAtTheEndOfTheFile() throws Exception {
+        Content content = new Content().dataContentType("text/plain").checksum(DATA_SHA_256).size((long) DATA.length);
+        fileSystemContentStore.save(content, new ByteArrayResource(DATA));
+
+        assertThatThrownBy(() -> fileSystemContentStore.copy(content, 6, 100, new ByteArrayOutputStream()))
+            .isInstanceOf(EOFException.class);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void assertThatFileSystemStoreDeletesFilesOfRolledBackContents() throws Exception {
+        Content content = new Content().dataContentType("text/plain").checksum(UUID.randomUUID().toString().replace("-", ""))
+            .size((long) DATA.length).storedSize((long) DATA.length);
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            try {
+                fileSystemContentStore.save(content, new ByteArrayResource(DATA));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            assertThat(fileSystemRoot().resolve(content.getLocation())).exists();
+            status.setRollbackOnly();
+            return null;
+        });
+
+        assertThat(fileSystemRoot().resolve(content.getLocation())).doesNotExist();
+    }
+
+    private Path fileSystemRoot() {
+        return Paths.get(applicationProperties.getStorage().getFileSystem().getRoot()).toAbsolutePath();
+    }
+
+    @Test
+    public void assertThatSmallPayloadsAreServedFromTheBlobCache() throws Exception {
+        Content content = contentService.store(new MockMultipartFile("files", "a.txt", "text/plain", DATA), "text/plain");
+        contentService.copy(content.getId(), 0, DATA.length, new ByteArrayOutputStream());
+        double hitsBefore = meterRegistry.counter("content.cache.gets", "result", "hit").count();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        contentService.copy(content.getId(), 6, 5, out);
+
+        assertThat(out.toString("UTF-8")).isEqualTo("world");
+        assertThat(meterRegistry.counter("content.cache.gets", "result", "hit").count()).isEqualTo(hitsBefore + 1);
+    }
+}
@@ -0,0 +1,122 @@
+package us.hennepin.mork.jhipster.application.service;
+
+import us.hennepin.mork.jhipster.application.JhipsterDocumentApplicationApp;
+import us.hennepin.mork.jhipster.application.domain.Content;
+import us.hennepin.mork.jhipster.application.domain.Document;
+import us.hennepin.mork.jhipster.application.repository.ContentRepository;
+import us.hennepin.mork.jhipster.application.repository.DocumentRepository;
+import us.hennepin.mork.jhipster.application.service.dto.DocumentContentDTO;
+import us.hennepin.mork.jhipster.application.service.store.ColdContentStore;
+import us.hennepin.mork.jhipster.application.service.store.ContentCompressor;
+import us.hennepin.mork.jhipster.application.service.store.JpaContentStore;
+import us.hennepin.mork.jhipster.application.web.rest.DocumentResourceIntTest;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the ContentTieringService.
+ *
+ * @see ContentTieringService
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = JhipsterDocumentApplicationApp.class)
+@Transactional
+public class ContentTieringServiceIntTest {
+
+    @Autowired
+    private ContentTieringService contentTieringService;
+
+    @Autowired
+    private ContentService contentService;
+
+    @Autowired
+    private ContentRepository contentRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    public void assertThatIdleContentsAreMovedToTheColdStoreAndBack() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            text.append("The quick brown fox jumps over the lazy dog. ");
+        }
+        byte[] data = text.toString().getBytes(StandardCharsets.UTF_8);
+        Document idle = createDocument(data);
+        Document active = createDocument("active".getBytes(StandardCharsets.UTF_8));
+        em.createQuery("update Document document set document.lastModifiedDate = :date where document.id = :id")
+            .setParameter("date", Instant.now().minus(Duration.ofDays(400)))
+            .setParameter("id", idle.getId())
+            .executeUpdate();
+        Long idleContentId = idle.getContent().getId();
+        Long activeContentId = active.getContent().getId();
+        em.clear();
+
+        contentTieringService.demote();
+        em.flush();
+        em.clear();
+
+        Content cold = contentRepository.findById(idleContentId).get();
+        assertThat(cold.getStore()).isEqualTo(ColdContentStore.NAME);
+        assertThat(cold.getEncoding()).isEqualTo(ContentCompressor.DEFLATE);
+        assertThat(cold.getStoredSize()).isLessThan(data.length);
+        assertThat(contentRepository.findById(activeContentId).get().getStore()).isNotEqualTo(ColdContentStore.NAME);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        contentService.copy(idleContentId, 0, data.length, out);
+        assertThat(out.toByteArray()).isEqualTo(data);
+
+        assertThat(contentService.promote(idleContentId)).isTrue();
+        em.flush();
+        em.clear();
+
+        assertThat(contentRepository.findById(idleContentId).get().getStore()).isEqualTo(JpaContentStore.NAME);
+        assertThat(contentRepository.findById(idleContentId).get().getLocation()).isNull();
+        out = new ByteArrayOutputStream();
+        contentService.copy(idleContentId, 0, data.length, out);
+        assertThat(out.toByteArray()).isEqualTo(data);
+    }
+
+    @Test
+    public void assertThatReadsAreRecordedOncePerResolution() {
+        Document document = createDocument("read".getBytes(StandardCharsets.UTF_8));
+
+        contentTieringService.recordAccess(documentRepository.findContentById(document.getId()).get());
+        em.clear();
+        DocumentContentDTO read = documentRepository.findContentById(document.getId()).get();
+        Instant firstRead = read.getLastAccessedDate();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        contentTieringService.recordAccess(read);
+        em.clear();
+
+        assertThat(firstRead).isNotNull();
+        // the second read is within the resolution, it is not written
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(documentRepository.findById(document.getId()).get().getLastAccessedDate()).isEqualTo(firstRead);
+    }
+
+    private Document createDocument(byte[] data) {
+        Document document = DocumentResourceIntTest.createEntity(em);
+        document.setContent(new Content().data(data).dataContentType("text/plain").size((long) data.length));
+        return documentRepository.saveAndFlush(document);
+    }
+}
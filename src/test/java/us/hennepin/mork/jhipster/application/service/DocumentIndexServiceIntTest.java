@@ -0,0 +1,80 @@
+package us.hennepin.mork.jhipster.application.service;
+
+import us.hennepin.mork.jhipster.application.JhipsterDocumentApplicationApp;
+import us.hennepin.mork.jhipster.application.domain.Content;
+import us.hennepin.mork.jhipster.application.domain.ContentText;
+import us.hennepin.mork.jhipster.application.domain.Document;
+import us.hennepin.mork.jhipster.application.repository.ContentTextRepository;
+import us.hennepin.mork.jhipster.application.repository.DocumentRepository;
+import us.hennepin.mork.jhipster.application.repository.search.DocumentSearchRepository;
+import us.hennepin.mork.jhipster.application.web.rest.DocumentResourceIntTest;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.stream.StreamSupport;
+
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Test class for the DocumentIndexService.
+ *
+ * @see DocumentIndexService
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = JhipsterDocumentApplicationApp.class)
+@Transactional
+public class DocumentIndexServiceIntTest {
+
+    @Autowired
+    private DocumentIndexService documentIndexService;
+
+    @Autowired
+    private ContentService contentService;
+
+    @Autowired
+    private ContentTextRepository contentTextRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    /**
+     * This repository is mocked in the us.hennepin.mork.jhipster.application.repository.search test package.
+     *
+     * @see us.hennepin.mork.jhipster.application.repository.search.DocumentSearchRepositoryMockConfiguration
+     */
+    @Autowired
+    private DocumentSearchRepository mockDocumentSearchRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    public void assertThatDocumentsAttachedToAnExtractedContentAreIndexedWithItsText() throws Exception {
+        // new contents are committed on their own, the payload must not have been stored by another test
+        byte[] data = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        Content content = contentService.store(new MockMultipartFile("files", "a.txt", "text/plain", data), "text/plain");
+        contentTextRepository.saveAndFlush(new ContentText().contentId(content.getId()).text("extracted").extractedDate(Instant.now()));
+        Content reused = contentService.store(new MockMultipartFile("files", "b.txt", "text/plain", data), "text/plain");
+        Document document = DocumentResourceIntTest.createEntity(em);
+        document.setContent(reused);
+        documentRepository.saveAndFlush(document);
+
+        documentIndexService.onDocumentsAttached(new DocumentsAttachedEvent(Arrays.asList(document.getId())));
+
+        verify(mockDocumentSearchRepository).saveAll(argThat((Iterable<Document> indexed) ->
+            StreamSupport.stream(indexed.spliterator(), false).anyMatch(d ->
+                document.getId().equals(d.getId()) && "extracted".equals(d.getText()))));
+    }
+}
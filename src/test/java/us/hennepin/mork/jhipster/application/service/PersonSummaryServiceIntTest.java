@@ -0,0 +1,114 @@
+package us.hennepin.mork.jhipster.application.service;
+
+import us.hennepin.mork.jhipster.application.JhipsterDocumentApplicationApp;
+import us.hennepin.mork.jhipster.application.domain.Document;
+import us.hennepin.mork.jhipster.application.domain.Person;
+import us.hennepin.mork.jhipster.application.repository.PersonRepository;
+import us.hennepin.mork.jhipster.application.service.dto.PersonSummaryDTO;
+import us.hennepin.mork.jhipster.application.web.rest.PersonResourceIntTest;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the PersonSummaryService.
+ *
+ * @see PersonSummaryService
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = JhipsterDocumentApplicationApp.class)
+@Transactional
+public class PersonSummaryServiceIntTest {
+
+    @Autowired
+    private PersonSummaryService personSummaryService;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    public void assertThatDocumentChangesAreAggregated() {
+        Person first = personRepository.saveAndFlush(PersonResourceIntTest.createEntity(em));
+        Person second = personRepository.saveAndFlush(PersonResourceIntTest.createEntity(em));
+        Document moved = createDocument(first, 10L);
+        Document deleted = createDocument(first, 5L);
+
+        PersonSummaryDTO summary = personRepository.findSummaryById(first.getId()).get();
+        assertThat(summary.getDocumentCount()).isEqualTo(2);
+        assertThat(summary.getDocumentSize()).isEqualTo(15);
+        assertThat(summary.getLastUploadDate()).isNotNull();
+
+        moved.person(second).size(20L);
+        personSummaryService.documentUpdated(first.getId(), 10L, moved);
+        em.remove(deleted);
+        personSummaryService.documentDeleted(deleted);
+
+        summary = personRepository.findSummaryById(first.getId()).get();
+        assertThat(summary.getDocumentCount()).isEqualTo(0);
+        assertThat(summary.getDocumentSize()).isEqualTo(0);
+        summary = personRepository.findSummaryById(second.getId()).get();
+        assertThat(summary.getDocumentCount()).isEqualTo(1);
+        assertThat(summary.getDocumentSize()).isEqualTo(20);
+    }
+
+    @Test
+    public void assertThatDocumentsOfAnUnflushedPersonAreAggregated() {
+        Person person = PersonResourceIntTest.createEntity(em);
+        Document document = new Document().title("document").size(8L).mimeType("text/plain");
+        person.addDocument(document);
+        personRepository.save(person);
+
+        personSummaryService.documentsCreated(person.getId(), Collections.singleton(document));
+
+        PersonSummaryDTO summary = personRepository.findSummaryById(person.getId()).get();
+        assertThat(summary.getDocumentCount()).isEqualTo(1);
+        assertThat(summary.getDocumentSize()).isEqualTo(8);
+        assertThat(summary.getLastUploadDate()).isNotNull();
+    }
+
+    @Test
+    public void assertThatDriftedSummariesAreReconciled() {
+        Person drifted = personRepository.saveAndFlush(PersonResourceIntTest.createEntity(em));
+        Person accurate = personRepository.saveAndFlush(PersonResourceIntTest.createEntity(em));
+        for (long size : new long[] {3L, 4L}) {
+            Document document = new Document().title("drifted").size(size).mimeType("text/plain");
+            drifted.addDocument(document);
+            em.persist(document);
+        }
+        createDocument(accurate, 7L);
+        em.flush();
+        PersonSummaryDTO before = personRepository.findSummaryById(accurate.getId()).get();
+
+        assertThat(personSummaryService.reconcile()).isGreaterThanOrEqualTo(1);
+
+        PersonSummaryDTO summary = personRepository.findSummaryById(drifted.getId()).get();
+        assertThat(summary.getDocumentCount()).isEqualTo(2);
+        assertThat(summary.getDocumentSize()).isEqualTo(7);
+        assertThat(summary.getLastUploadDate()).isNotNull();
+        summary = personRepository.findSummaryById(accurate.getId()).get();
+        assertThat(summary.getDocumentCount()).isEqualTo(1);
+        assertThat(summary.getDocumentSize()).isEqualTo(7);
+        assertThat(summary.getLastUploadDate()).isEqualTo(before.getLastUploadDate());
+    }
+
+    private Document createDocument(Person person, long size) {
+        Document document = new Document().title("document").size(size).mimeType("text/plain");
+        person.addDocument(document);
+        em.persist(document);
+        em.flush();
+        personSummaryService.documentCreated(document);
+        return document;
+    }
+}
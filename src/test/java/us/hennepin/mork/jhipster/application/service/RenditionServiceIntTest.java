@@ -0,0 +1,62 @@
+package us.hennepin.mork.jhipster.application.service;
+
+import us.hennepin.mork.jhipster.application.JhipsterDocumentApplicationApp;
+import us.hennepin.mork.jhipster.application.domain.Content;
+import us.hennepin.mork.jhipster.application.domain.Thumbnail;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the RenditionService.
+ *
+ * @see RenditionService
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = JhipsterDocumentApplicationApp.class)
+@Transactional
+public class RenditionServiceIntTest {
+
+    @Autowired
+    private RenditionService renditionService;
+
+    @Autowired
+    private ContentService contentService;
+
+    @Test
+    public void assertThatImageThumbnailFitsInItsSize() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(1024, 512, BufferedImage.TYPE_INT_ARGB), "png", png);
+        Content content = contentService.store(new MockMultipartFile("files", "scan.png", "image/png", png.toByteArray()), "image/png");
+
+        Optional<Thumbnail> thumbnail = renditionService.renderThumbnail(content.getId());
+
+        assertThat(thumbnail).isPresent();
+        assertThat(thumbnail.get().getMimeType()).isEqualTo(RenditionService.THUMBNAIL_MIME_TYPE);
+        assertThat(thumbnail.get().getWidth()).isEqualTo(256);
+        assertThat(thumbnail.get().getHeight()).isEqualTo(128);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(thumbnail.get().getData()));
+        assertThat(image.getWidth()).isEqualTo(256);
+        assertThat(renditionService.findThumbnail(content.getId())).isPresent();
+    }
+
+    @Test
+    public void assertThatUnsupportedPayloadsHaveNoThumbnail() throws Exception {
+        Content content = contentService.store(new MockMultipartFile("files", "a.txt", "text/plain", new byte[] {'a'}), "text/plain");
+
+        assertThat(renditionService.renderThumbnail(content.getId())).isNotPresent();
+    }
+}
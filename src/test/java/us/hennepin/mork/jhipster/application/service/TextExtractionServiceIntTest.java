@@ -0,0 +1,102 @@
+package us.hennepin.mork.jhipster.application.service;
+
+import us.hennepin.mork.jhipster.application.JhipsterDocumentApplicationApp;
+import us.hennepin.mork.jhipster.application.domain.Content;
+import us.hennepin.mork.jhipster.application.domain.Document;
+import us.hennepin.mork.jhipster.application.repository.ContentTextRepository;
+import us.hennepin.mork.jhipster.application.repository.DocumentRepository;
+import us.hennepin.mork.jhipster.application.repository.search.DocumentSearchRepository;
+import us.hennepin.mork.jhipster.application.web.rest.DocumentResourceIntTest;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Test class for the TextExtractionService.
+ *
+ * @see TextExtractionService
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = JhipsterDocumentApplicationApp.class)
+@Transactional
+public class TextExtractionServiceIntTest {
+
+    private static final String DOCX = "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+
+    @Autowired
+    private TextExtractionService textExtractionService;
+
+    @Autowired
+    private ContentService contentService;
+
+    @Autowired
+    private ContentTextRepository contentTextRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    /**
+     * This repository is mocked in the us.hennepin.mork.jhipster.application.repository.search test package.
+     *
+     * @see us.hennepin.mork.jhipster.application.repository.search.DocumentSearchRepositoryMockConfiguration
+     */
+    @Autowired
+    private DocumentSearchRepository mockDocumentSearchRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    public void assertThatPlainTextIsExtractedAndIndexed() throws Exception {
+        byte[] data = "Motion to suppress evidence".getBytes(StandardCharsets.UTF_8);
+        Content content = contentService.store(new MockMultipartFile("files", "motion.txt", "text/plain", data), "text/plain");
+        Document document = DocumentResourceIntTest.createEntity(em);
+        document.setContent(content);
+        documentRepository.saveAndFlush(document);
+
+        assertThat(textExtractionService.extract(content.getId())).contains("Motion to suppress evidence");
+
+        assertThat(contentTextRepository.findById(content.getId())).isPresent();
+        verify(mockDocumentSearchRepository).save(argThat((Document indexed) ->
+            document.getId().equals(indexed.getId()) && "Motion to suppress evidence".equals(indexed.getText())));
+    }
+
+    @Test
+    public void assertThatWordTextIsExtracted() throws Exception {
+        ByteArrayOutputStream docx = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(docx)) {
+            zip.putNextEntry(new ZipEntry("word/document.xml"));
+            zip.write(("<w:document xmlns:w=\"http://schemas.openxmlformats.org/wordprocessingml/2006/main\"><w:body>"
+                + "<w:p><w:r><w:t>First</w:t></w:r></w:p><w:p><w:r><w:t>Second</w:t></w:r></w:p>"
+                + "</w:body></w:document>").getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        Content content = contentService.store(new MockMultipartFile("files", "brief.docx", DOCX, docx.toByteArray()), DOCX);
+
+        assertThat(textExtractionService.extract(content.getId())).contains("First\nSecond\n");
+    }
+
+    @Test
+    public void assertThatBinaryPayloadsAreSkipped() throws Exception {
+        Content content = contentService.store(new MockMultipartFile("files", "a.bin", "application/octet-stream", new byte[] {1, 2, 3}),
+            "application/octet-stream");
+
+        assertThat(textExtractionService.extract(content.getId())).isEmpty();
+        assertThat(contentTextRepository.findById(content.getId())).isNotPresent();
+    }
+}
@@ -0,0 +1,64 @@
+package us.hennepin.mork.jhipster.application.service.store;
+
+import us.hennepin.mork.jhipster.application.config.ApplicationProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ContentCompressorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ContentCompressor contentCompressor;
+
+    @Before
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getStorage().getCompression().setEnabled(true);
+        meterRegistry = new SimpleMeterRegistry();
+        contentCompressor = new ContentCompressor(applicationProperties, meterRegistry);
+    }
+
+    @Test
+    public void testIsCompressibleFollowsMimeTypePolicy() {
+        assertThat(contentCompressor.isCompressible("text/plain", 4096)).isTrue();
+        assertThat(contentCompressor.isCompressible("text/html; charset=UTF-8", 4096)).isTrue();
+        assertThat(contentCompressor.isCompressible("application/pdf", 4096)).isTrue();
+        assertThat(contentCompressor.isCompressible("image/jpeg", 4096)).isFalse();
+        assertThat(contentCompressor.isCompressible("application/vnd.openxmlformats-officedocument.wordprocessingml.document", 4096)).isFalse();
+        assertThat(contentCompressor.isCompressible("text/plain", 10)).isFalse();
+        assertThat(contentCompressor.isCompressible(null, 4096)).isFalse();
+        assertThat(contentCompressor.isCompressible("not a mime type", 4096)).isFalse();
+    }
+
+    @Test
+    public void testCompressAndDecodeRoundTrip() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            text.append("The quick brown fox jumps over the lazy dog. ");
+        }
+        byte[] data = text.toString().getBytes(StandardCharsets.UTF_8);
+
+        Path compressed = contentCompressor.compress(new ByteArrayResource(data));
+        try {
+            assertThat(Files.size(compressed)).isLessThan(data.length);
+            contentCompressor.record(data.length, Files.size(compressed));
+            try (InputStream in = contentCompressor.decode(Files.newInputStream(compressed), ContentCompressor.DEFLATE)) {
+                assertThat(IOUtils.toByteArray(in)).isEqualTo(data);
+            }
+        } finally {
+            Files.deleteIfExists(compressed);
+        }
+        assertThat(meterRegistry.get("content.compression.original.bytes").counter().count()).isEqualTo(data.length);
+    }
+}
@@ -0,0 +1,187 @@
+package us.hennepin.mork.jhipster.application.service.store;
+
+import us.hennepin.mork.jhipster.application.config.ApplicationProperties;
+import us.hennepin.mork.jhipster.application.domain.Content;
+import us.hennepin.mork.jhipster.application.repository.ContentRepository;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PackContentStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ContentRepository contentRepository;
+
+    private ApplicationProperties applicationProperties;
+
+    private PackContentStore packContentStore;
+
+    @Before
+    public void setup() throws Exception {
+        contentRepository = mock(ContentRepository.class);
+        when(contentRepository.save(any(Content.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getStorage().getPack().setEnabled(true);
+        applicationProperties.getStorage().getPack().setDirectory(folder.getRoot().getPath());
+        packContentStore = newStore();
+    }
+
+    @After
+    public void tearDown() {
+        packContentStore.close();
+    }
+
+    @Test
+    public void testSaveAndReadRange() throws Exception {
+        Content content = save("aaaa", "hello world");
+
+        assertThat(content.getStore()).isEqualTo(PackContentStore.NAME);
+        assertThat(content.getLocation()).isEqualTo("aaaa");
+        assertThat(packContentStore.length(content)).isEqualTo(11);
+        try (InputStream in = packContentStore.open(content)) {
+            assertThat(IOUtils.toString(in, StandardCharsets.UTF_8)).isEqualTo("hello world");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        packContentStore.copy(content, 6, 5, out);
+        assertThat(out.toString("UTF-8")).isEqualTo("world");
+    }
+
+    @Test
+    public void testRecoveryTruncatesTornRecord() throws Exception {
+        Content content = save("aaaa", "hello world");
+        packContentStore.close();
+        Path pack = folder.getRoot().toPath().resolve("pack-000001.dat");
+        long size = Files.size(pack);
+        Files.write(pack, new byte[] {0x43, 0x4e, 0x54}, StandardOpenOption.APPEND);
+
+        packContentStore = newStore();
+
+        assertThat(Files.size(pack)).isEqualTo(size);
+        try (InputStream in = packContentStore.open(content)) {
+            assertThat(IOUtils.toString(in, StandardCharsets.UTF_8)).isEqualTo("hello world");
+        }
+        Content next = save("bbbb", "next");
+        try (InputStream in = packContentStore.open(next)) {
+            assertThat(IOUtils.toString(in, StandardCharsets.UTF_8)).isEqualTo("next");
+        }
+    }
+
+    @Test
+    public void testCompactionReclaimsDeletedPayloads() throws Exception {
+        packContentStore.close();
+        applicationProperties.getStorage().getPack().setMaxPackSize(64);
+        packContentStore = newStore();
+        Content deleted = save("aaaa", "deleted payload");
+        Content live = save("bbbb", "live payload");
+        save("cccc", "current payload");
+        Path first = folder.getRoot().toPath().resolve("pack-000001.dat");
+        Files.setLastModifiedTime(first, FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+        when(contentRepository.findLocationsInStore(eq(PackContentStore.NAME), anyCollection()))
+            .thenReturn(Collections.singletonList("bbbb"));
+
+        packContentStore.compact();
+
+        assertThat(first).doesNotExist();
+        assertThatThrownBy(() -> packContentStore.open(deleted)).isInstanceOf(FileNotFoundException.class);
+        try (InputStream in = packContentStore.open(live)) {
+            assertThat(IOUtils.toString(in, StandardCharsets.UTF_8)).isEqualTo("live payload");
+        }
+        packContentStore.close();
+        packContentStore = newStore();
+        try (InputStream in = packContentStore.open(live)) {
+            assertThat(IOUtils.toString(in, StandardCharsets.UTF_8)).isEqualTo("live payload");
+        }
+    }
+
+    @Test
+    public void testDeletedPayloadIsNotRecovered() throws Exception {
+        Content deleted = save("aaaa", "deleted payload");
+        Content live = save("bbbb", "live payload");
+
+        deleteAndCommit(deleted);
+        packContentStore.close();
+        packContentStore = newStore();
+
+        assertThatThrownBy(() -> packContentStore.open(deleted)).isInstanceOf(FileNotFoundException.class);
+        try (InputStream in = packContentStore.open(live)) {
+            assertThat(IOUtils.toString(in, StandardCharsets.UTF_8)).isEqualTo("live payload");
+        }
+    }
+
+    @Test
+    public void testCompactionKeepsTombstonesOfOlderPackFiles() throws Exception {
+        packContentStore.close();
+        applicationProperties.getStorage().getPack().setMaxPackSize(64);
+        packContentStore = newStore();
+        Content deleted = save("aaaa", "deleted payload");
+        Content live = save("bbbb", "live payload");
+        deleteAndCommit(deleted);
+        save("cccc", "current payload");
+        save("dddd", "next");
+        Path second = folder.getRoot().toPath().resolve("pack-000002.dat");
+        Files.setLastModifiedTime(second, FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+        when(contentRepository.findLocationsInStore(eq(PackContentStore.NAME), anyCollection()))
+            .thenReturn(Collections.singletonList("bbbb"));
+
+        packContentStore.compact();
+        packContentStore.close();
+        packContentStore = newStore();
+
+        assertThat(second).doesNotExist();
+        assertThatThrownBy(() -> packContentStore.open(deleted)).isInstanceOf(FileNotFoundException.class);
+        try (InputStream in = packContentStore.open(live)) {
+            assertThat(IOUtils.toString(in, StandardCharsets.UTF_8)).isEqualTo("live payload");
+        }
+    }
+
+    private PackContentStore newStore() throws Exception {
+        PackContentStore store = new PackContentStore(contentRepository, applicationProperties);
+        store.recover();
+        return store;
+    }
+
+    private Content save(String checksum, String payload) throws Exception {
+        byte[] data = payload.getBytes(StandardCharsets.UTF_8);
+        Content content = new Content().checksum(checksum).storedSize((long) data.length);
+        return packContentStore.save(content, new ByteArrayResource(data));
+    }
+
+    private void deleteAndCommit(Content content) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            packContentStore.delete(content);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
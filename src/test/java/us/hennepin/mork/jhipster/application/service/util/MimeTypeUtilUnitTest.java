@@ -0,0 +1,39 @@
+package us.hennepin.mork.jhipster.application.service.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+/**
+ * Test class for the MimeTypeUtil utility class.
+ *
+ * @see MimeTypeUtil
+ */
+public class MimeTypeUtilUnitTest {
+
+    private static final byte[] PDF = {'%', 'P', 'D', 'F', '-', '1', '.', '4'};
+
+    @Test
+    public void testDeclaredTypeIsKept() {
+        assertThat(MimeTypeUtil.resolve("text/plain", PDF, PDF.length, "a.pdf")).isEqualTo("text/plain");
+    }
+
+    @Test
+    public void testGenericTypeIsSniffed() {
+        assertThat(MimeTypeUtil.resolve("application/octet-stream", PDF, PDF.length, null)).isEqualTo("application/pdf");
+        assertThat(MimeTypeUtil.resolve(null, new byte[] {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 0}, 4, null)).isEqualTo("image/jpeg");
+        assertThat(MimeTypeUtil.resolve(null, new byte[] {'I', 'I', '*', 0}, 4, null)).isEqualTo("image/tiff");
+    }
+
+    @Test
+    public void testFallbackOnFilename() {
+        byte[] text = {'h', 'e', 'l', 'l', 'o'};
+        assertThat(MimeTypeUtil.resolve(null, text, text.length, "notes.txt")).isEqualTo("text/plain");
+        assertThat(MimeTypeUtil.resolve(null, text, text.length, null)).isEqualTo("application/octet-stream");
+    }
+
+    @Test
+    public void testShortPayload() {
+        assertThat(MimeTypeUtil.resolve(null, new byte[8], 0, null)).isEqualTo("application/octet-stream");
+    }
+}
@@ -1,20 +1,28 @@
 package us.hennepin.mork.jhipster.application.web.rest;
 
 import us.hennepin.mork.jhipster.application.JhipsterDocumentApplicationApp;
+import us.hennepin.mork.jhipster.application.config.ApplicationProperties;
 
 import us.hennepin.mork.jhipster.application.domain.Content;
 import us.hennepin.mork.jhipster.application.domain.Document;
 import us.hennepin.mork.jhipster.application.repository.ContentRepository;
+import us.hennepin.mork.jhipster.application.repository.DocumentRepository;
 import us.hennepin.mork.jhipster.application.repository.search.ContentSearchRepository;
+import us.hennepin.mork.jhipster.application.service.ContentService;
+import us.hennepin.mork.jhipster.application.service.store.ContentCompressor;
+import us.hennepin.mork.jhipster.application.service.store.FileSystemContentStore;
 import us.hennepin.mork.jhipster.application.web.rest.errors.ExceptionTranslator;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -25,14 +33,18 @@ import org.springframework.util.Base64Utils;
 import org.springframework.validation.Validator;
 
 import javax.persistence.EntityManager;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
 
 
 import static us.hennepin.mork.jhipster.application.web.rest.TestUtil.createFormattingConversionService;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -62,6 +74,18 @@ public class ContentResourceIntTest {
     @Autowired
     private ContentSearchRepository mockContentSearchRepository;
 
+    @Autowired
+    private ContentService contentService;
+
+    @Autowired
+    private FileSystemContentStore fileSystemContentStore;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
     @Autowired
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -84,7 +108,7 @@ public class ContentResourceIntTest {
     @Before
     public void setup() {
         MockitoAnnotations.initMocks(this);
-        final ContentResource contentResource = new ContentResource(contentRepository, mockContentSearchRepository);
+        final ContentResource contentResource = new ContentResource(contentRepository, mockContentSearchRepository, contentService);
         this.restContentMockMvc = MockMvcBuilders.standaloneSetup(contentResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setControllerAdvice(exceptionTranslator)
@@ -107,7 +131,7 @@ public class ContentResourceIntTest {
         Document document = DocumentResourceIntTest.createEntity(em);
         em.persist(document);
         em.flush();
-        content.setDocument(document);
+        content.getDocuments().add(document);
         return content;
     }
 
@@ -170,11 +194,33 @@ public class ContentResourceIntTest {
         restContentMockMvc.perform(get("/api/contents?sort=id,desc"))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(header().exists("X-Total-Count"))
             .andExpect(jsonPath("$.[*].id").value(hasItem(content.getId().intValue())))
             .andExpect(jsonPath("$.[*].dataContentType").value(hasItem(DEFAULT_DATA_CONTENT_TYPE)))
             .andExpect(jsonPath("$.[*].data").value(hasItem(Base64Utils.encodeToString(DEFAULT_DATA))));
     }
     
+    @Test
+    @Transactional
+    public void getAllOrphanContents() throws Exception {
+        // Initialize the database
+        contentRepository.saveAndFlush(content);
+        Document document = DocumentResourceIntTest.createEntity(em);
+        document.setContent(new Content().data(UPDATED_DATA).dataContentType(UPDATED_DATA_CONTENT_TYPE));
+        em.persist(document);
+        em.flush();
+
+        // Get the contents no document references, without their payload
+        restContentMockMvc.perform(get("/api/contents?filter=document-is-null&sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(header().exists("X-Total-Count"))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("filter=document-is-null")))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(content.getId().intValue())))
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(document.getContent().getId().intValue()))))
+            .andExpect(jsonPath("$.[*].data").doesNotExist());
+    }
+
     @Test
     @Transactional
     public void getContent() throws Exception {
@@ -217,11 +263,14 @@ public class ContentResourceIntTest {
         restContentMockMvc.perform(put("/api/contents")
             .contentType(TestUtil.APPLICATION_JSON_UTF8)
             .content(TestUtil.convertObjectToJsonBytes(updatedContent)))
-            .andExpect(status().isOk());
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data").value(Base64Utils.encodeToString(UPDATED_DATA)));
 
-        // Validate the Content in the database
+        // Validate the new payload is in another Content, and the unreferenced Content is released
+        em.clear();
         List<Content> contentList = contentRepository.findAll();
         assertThat(contentList).hasSize(databaseSizeBeforeUpdate);
+        assertThat(contentRepository.existsById(content.getId())).isFalse();
         Content testContent = contentList.get(contentList.size() - 1);
         assertThat(testContent.getData()).isEqualTo(UPDATED_DATA);
         assertThat(testContent.getDataContentType()).isEqualTo(UPDATED_DATA_CONTENT_TYPE);
@@ -230,6 +279,100 @@ public class ContentResourceIntTest {
         verify(mockContentSearchRepository, times(1)).save(testContent);
     }
 
+    @Test
+    @Transactional
+    public void updateReferencedContent() throws Exception {
+        // Initialize the database
+        Document document = DocumentResourceIntTest.createEntity(em);
+        document.setContent(content);
+        em.persist(document);
+        em.flush();
+        em.detach(content);
+
+        // Update the payload of the shared Content
+        content.data(UPDATED_DATA).dataContentType(UPDATED_DATA_CONTENT_TYPE);
+        restContentMockMvc.perform(put("/api/contents")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(content)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(not(content.getId().intValue())))
+            .andExpect(jsonPath("$.data").value(Base64Utils.encodeToString(UPDATED_DATA)));
+
+        // Validate the document keeps its payload
+        em.clear();
+        Content kept = documentRepository.findById(document.getId()).get().getContent();
+        assertThat(kept.getId()).isEqualTo(content.getId());
+        assertThat(kept.getData()).isEqualTo(DEFAULT_DATA);
+    }
+
+    @Test
+    @Transactional
+    public void createAndGetDeflatedContent() throws Exception {
+        // A payload which is deflated in its store
+        byte[] data = String.join("", Collections.nCopies(256, UUID.randomUUID().toString())).getBytes(StandardCharsets.UTF_8);
+        Content text = new Content().data(data).dataContentType("text/plain");
+
+        String response;
+        applicationProperties.getStorage().getCompression().setEnabled(true);
+        try {
+            response = restContentMockMvc.perform(post("/api/contents")
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(TestUtil.convertObjectToJsonBytes(text)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.encoding").value(ContentCompressor.DEFLATE))
+                .andExpect(jsonPath("$.data").value(Base64Utils.encodeToString(data)))
+                .andReturn().getResponse().getContentAsString();
+        } finally {
+            applicationProperties.getStorage().getCompression().setEnabled(false);
+        }
+        Long id = new ObjectMapper().readTree(response).get("id").asLong();
+
+        // The payload is read as it was uploaded
+        restContentMockMvc.perform(get("/api/contents/{id}", id))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.encoding").value(ContentCompressor.DEFLATE))
+            .andExpect(jsonPath("$.size").value(data.length))
+            .andExpect(jsonPath("$.data").value(Base64Utils.encodeToString(data)));
+    }
+
+    @Test
+    @Transactional
+    public void updateContentWithoutData() throws Exception {
+        // Initialize the database
+        contentRepository.saveAndFlush(content);
+        em.detach(content);
+
+        // Update the MIME type only
+        content.setData(null);
+        content.setDataContentType(UPDATED_DATA_CONTENT_TYPE);
+        restContentMockMvc.perform(put("/api/contents")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(content)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.dataContentType").value(UPDATED_DATA_CONTENT_TYPE))
+            .andExpect(jsonPath("$.data").value(Base64Utils.encodeToString(DEFAULT_DATA)));
+
+        // Validate the payload is kept
+        em.flush();
+        em.clear();
+        assertThat(contentRepository.findById(content.getId()).get().getData()).isEqualTo(DEFAULT_DATA);
+    }
+
+    @Test
+    @Transactional
+    public void getFileSystemContent() throws Exception {
+        // Initialize the database, with a payload stored out of the content table
+        Content stored = new Content().dataContentType(DEFAULT_DATA_CONTENT_TYPE).checksum(UUID.randomUUID().toString().replace("-", ""))
+            .size((long) DEFAULT_DATA.length).storedSize((long) DEFAULT_DATA.length);
+        fileSystemContentStore.save(stored, new ByteArrayResource(DEFAULT_DATA));
+
+        // Get the content, with its payload read from its store
+        restContentMockMvc.perform(get("/api/contents/{id}", stored.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.store").value(FileSystemContentStore.NAME))
+            .andExpect(jsonPath("$.data").value(Base64Utils.encodeToString(DEFAULT_DATA)));
+    }
+
     @Test
     @Transactional
     public void updateNonExistingContent() throws Exception {
@@ -272,6 +415,27 @@ public class ContentResourceIntTest {
         verify(mockContentSearchRepository, times(1)).deleteById(content.getId());
     }
 
+    @Test
+    @Transactional
+    public void deleteReferencedContent() throws Exception {
+        // Initialize the database
+        Document document = DocumentResourceIntTest.createEntity(em);
+        document.setContent(content);
+        em.persist(document);
+        em.flush();
+
+        int databaseSizeBeforeDelete = contentRepository.findAll().size();
+
+        // A content referenced by a document cannot be deleted
+        restContentMockMvc.perform(delete("/api/contents/{id}", content.getId())
+            .accept(TestUtil.APPLICATION_JSON_UTF8))
+            .andExpect(status().isConflict());
+
+        // Validate the Content is still in the database and in Elasticsearch
+        assertThat(contentRepository.findAll()).hasSize(databaseSizeBeforeDelete);
+        verify(mockContentSearchRepository, never()).deleteById(content.getId());
+    }
+
     @Test
     @Transactional
     public void searchContent() throws Exception {
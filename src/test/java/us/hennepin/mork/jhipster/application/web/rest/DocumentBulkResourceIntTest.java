@@ -0,0 +1,195 @@
+package us.hennepin.mork.jhipster.application.web.rest;
+
+import us.hennepin.mork.jhipster.application.JhipsterDocumentApplicationApp;
+
+import us.hennepin.mork.jhipster.application.domain.Document;
+import us.hennepin.mork.jhipster.application.repository.DocumentRepository;
+import us.hennepin.mork.jhipster.application.repository.PersonRepository;
+import us.hennepin.mork.jhipster.application.repository.search.DocumentSearchRepository;
+import us.hennepin.mork.jhipster.application.service.DocumentBulkService;
+import us.hennepin.mork.jhipster.application.web.rest.errors.ExceptionTranslator;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static us.hennepin.mork.jhipster.application.web.rest.TestUtil.createFormattingConversionService;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Test class for the DocumentBulkResource REST controller.
+ *
+ * @see DocumentBulkResource
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = JhipsterDocumentApplicationApp.class)
+public class DocumentBulkResourceIntTest {
+
+    @Autowired
+    private DocumentBulkService documentBulkService;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    /**
+     * This repository is mocked in the us.hennepin.mork.jhipster.application.repository.search test package.
+     *
+     * @see us.hennepin.mork.jhipster.application.repository.search.DocumentSearchRepositoryMockConfiguration
+     */
+    @Autowired
+    private DocumentSearchRepository mockDocumentSearchRepository;
+
+    @Autowired
+    private MappingJackson2HttpMessageConverter jacksonMessageConverter;
+
+    @Autowired
+    private ExceptionTranslator exceptionTranslator;
+
+    @Autowired
+    private EntityManager em;
+
+    private MockMvc restDocumentBulkMockMvc;
+
+    private Document document;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        final DocumentBulkResource documentBulkResource = new DocumentBulkResource(documentBulkService);
+        this.restDocumentBulkMockMvc = MockMvcBuilders.standaloneSetup(documentBulkResource)
+            .setControllerAdvice(exceptionTranslator)
+            .setConversionService(createFormattingConversionService())
+            .setMessageConverters(jacksonMessageConverter).build();
+    }
+
+    @Before
+    public void initTest() {
+        document = DocumentResourceIntTest.createEntity(em);
+    }
+
+    @Test
+    @Transactional
+    public void createDocuments() throws Exception {
+        int databaseSizeBeforeCreate = documentRepository.findAll().size();
+        Document second = new Document().title("second").size(2L).mimeType("text/plain").person(document.getPerson());
+        Document withId = new Document().title("with id").size(3L).person(document.getPerson());
+        withId.setId(Long.MAX_VALUE);
+        Document withoutTitle = new Document().size(4L).person(document.getPerson());
+
+        restDocumentBulkMockMvc.perform(post("/api/documents/bulk")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(Arrays.asList(document, second, withId, withoutTitle))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(4))
+            .andExpect(jsonPath("$.[0].status").value(201))
+            .andExpect(jsonPath("$.[0].id").isNumber())
+            .andExpect(jsonPath("$.[1].status").value(201))
+            .andExpect(jsonPath("$.[2].status").value(400))
+            .andExpect(jsonPath("$.[2].error").value("idexists"))
+            .andExpect(jsonPath("$.[3].index").value(3))
+            .andExpect(jsonPath("$.[3].status").value(400))
+            .andExpect(jsonPath("$.[3].error").value("invalid"));
+
+        // Validate the Documents in the database, and the aggregates of their person
+        assertThat(documentRepository.findAll()).hasSize(databaseSizeBeforeCreate + 2);
+        assertThat(personRepository.findSummaryById(document.getPerson().getId()).get().getDocumentCount()).isEqualTo(2);
+
+        // Validate the Documents are indexed with a single request
+        verify(mockDocumentSearchRepository, times(1)).saveAll(anyIterable());
+    }
+
+    @Test
+    @Transactional
+    public void updateDocuments() throws Exception {
+        // Initialize the database
+        documentRepository.saveAndFlush(document);
+        Document stale = documentRepository.saveAndFlush(DocumentResourceIntTest.createEntity(em));
+        em.detach(document);
+        em.detach(stale);
+        Document missing = new Document().title("missing").size(1L).person(document.getPerson());
+        missing.setId(Long.MAX_VALUE);
+        document.title("updated");
+        stale.setVersion(stale.getVersion() + 1);
+
+        restDocumentBulkMockMvc.perform(put("/api/documents/bulk")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(Arrays.asList(document, missing, stale))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].status").value(200))
+            .andExpect(jsonPath("$.[0].id").value(document.getId().intValue()))
+            .andExpect(jsonPath("$.[1].status").value(404))
+            .andExpect(jsonPath("$.[2].status").value(409))
+            .andExpect(jsonPath("$.[2].error").value("concurrency"));
+
+        // Validate the Document in the database
+        assertThat(documentRepository.findById(document.getId()).get().getTitle()).isEqualTo("updated");
+        assertThat(documentRepository.findById(stale.getId()).get().getTitle()).isEqualTo(stale.getTitle());
+    }
+
+    @Test
+    @Transactional
+    public void deleteDocuments() throws Exception {
+        // Initialize the database
+        documentRepository.saveAndFlush(document);
+        int databaseSizeBeforeDelete = documentRepository.findAll().size();
+
+        restDocumentBulkMockMvc.perform(post("/api/documents/bulk/delete")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(Arrays.asList(document.getId(), Long.MAX_VALUE, document.getId()))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].status").value(200))
+            .andExpect(jsonPath("$.[1].status").value(404))
+            .andExpect(jsonPath("$.[2].status").value(404));
+
+        // Validate the database is empty
+        assertThat(documentRepository.findAll()).hasSize(databaseSizeBeforeDelete - 1);
+
+        // Validate the Document is removed from Elasticsearch
+        verify(mockDocumentSearchRepository, times(1)).deleteAll(anyIterable());
+    }
+
+    @Test
+    @Transactional
+    public void deleteTooManyDocuments() throws Exception {
+        List<Long> ids = LongStream.rangeClosed(1, DocumentBulkResource.MAX_ITEMS + 1).boxed().collect(Collectors.toList());
+
+        restDocumentBulkMockMvc.perform(post("/api/documents/bulk/delete")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(ids)))
+            .andExpect(status().isBadRequest());
+
+        verify(mockDocumentSearchRepository, never()).deleteAll(anyIterable());
+    }
+
+    @Test
+    @Transactional
+    public void createNoDocuments() throws Exception {
+        restDocumentBulkMockMvc.perform(post("/api/documents/bulk")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(Collections.emptyList())))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+    }
+}
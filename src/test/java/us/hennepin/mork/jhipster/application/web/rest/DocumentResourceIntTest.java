@@ -2,12 +2,25 @@ package us.hennepin.mork.jhipster.application.web.rest;
 
 import us.hennepin.mork.jhipster.application.JhipsterDocumentApplicationApp;
 
+import us.hennepin.mork.jhipster.application.domain.Content;
 import us.hennepin.mork.jhipster.application.domain.Document;
 import us.hennepin.mork.jhipster.application.domain.Person;
+import us.hennepin.mork.jhipster.application.domain.Thumbnail;
 import us.hennepin.mork.jhipster.application.repository.DocumentRepository;
+import us.hennepin.mork.jhipster.application.repository.ThumbnailRepository;
 import us.hennepin.mork.jhipster.application.repository.search.DocumentSearchRepository;
+import us.hennepin.mork.jhipster.application.service.ContentService;
+import us.hennepin.mork.jhipster.application.service.ContentTieringService;
+import us.hennepin.mork.jhipster.application.service.DocumentExportService;
+import us.hennepin.mork.jhipster.application.service.DocumentQueryService;
+import us.hennepin.mork.jhipster.application.service.PersonSummaryService;
+import us.hennepin.mork.jhipster.application.service.DocumentIndexService;
+import us.hennepin.mork.jhipster.application.service.RenditionService;
 import us.hennepin.mork.jhipster.application.web.rest.errors.ExceptionTranslator;
+import us.hennepin.mork.jhipster.application.web.rest.util.PaginationUtil;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -15,6 +28,7 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -24,6 +38,8 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.Validator;
 
 import javax.persistence.EntityManager;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 
@@ -31,6 +47,7 @@ import java.util.List;
 import static us.hennepin.mork.jhipster.application.web.rest.TestUtil.createFormattingConversionService;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -65,6 +82,30 @@ public class DocumentResourceIntTest {
     @Autowired
     private DocumentSearchRepository mockDocumentSearchRepository;
 
+    @Autowired
+    private DocumentIndexService documentIndexService;
+
+    @Autowired
+    private ContentService contentService;
+
+    @Autowired
+    private RenditionService renditionService;
+
+    @Autowired
+    private ContentTieringService contentTieringService;
+
+    @Autowired
+    private DocumentExportService documentExportService;
+
+    @Autowired
+    private PersonSummaryService personSummaryService;
+
+    @Autowired
+    private DocumentQueryService documentQueryService;
+
+    @Autowired
+    private ThumbnailRepository thumbnailRepository;
+
     @Autowired
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -87,7 +128,8 @@ public class DocumentResourceIntTest {
     @Before
     public void setup() {
         MockitoAnnotations.initMocks(this);
-        final DocumentResource documentResource = new DocumentResource(documentRepository, mockDocumentSearchRepository);
+        final DocumentResource documentResource = new DocumentResource(documentRepository, mockDocumentSearchRepository, documentIndexService, contentService,
+            renditionService, contentTieringService, documentExportService, personSummaryService, documentQueryService);
         this.restDocumentMockMvc = MockMvcBuilders.standaloneSetup(documentResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setControllerAdvice(exceptionTranslator)
@@ -211,11 +253,183 @@ public class DocumentResourceIntTest {
         restDocumentMockMvc.perform(get("/api/documents?sort=id,desc"))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(header().exists("X-Total-Count"))
             .andExpect(jsonPath("$.[*].id").value(hasItem(document.getId().intValue())))
             .andExpect(jsonPath("$.[*].title").value(hasItem(DEFAULT_TITLE.toString())))
             .andExpect(jsonPath("$.[*].size").value(hasItem(DEFAULT_SIZE.intValue())))
             .andExpect(jsonPath("$.[*].mimeType").value(hasItem(DEFAULT_MIME_TYPE.toString())));
     }
+
+    @Test
+    @Transactional
+    public void getAllDocumentsWithoutLoadingEntities() throws Exception {
+        // Initialize the database
+        documentRepository.saveAndFlush(document);
+        em.clear();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        // Get all the documentList, then the document
+        restDocumentMockMvc.perform(get("/api/documents?sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(document.getId().intValue()))
+            .andExpect(jsonPath("$.[0].person.id").value(document.getPerson().getId().intValue()));
+        restDocumentMockMvc.perform(get("/api/documents/{id}", document.getId()))
+            .andExpect(status().isOk());
+
+        // Only projections were read, neither documents nor people were instantiated
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    @Transactional
+    public void exportDocuments() throws Exception {
+        // Initialize the database
+        documentRepository.saveAndFlush(document);
+
+        // Export all the documents, one per line
+        String export = restDocumentMockMvc.perform(get("/api/documents/export"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(DocumentExportService.NDJSON_MIME_TYPE))
+            .andReturn().getResponse().getContentAsString();
+        assertThat(export).endsWith("\n");
+        assertThat(export.split("\n")).contains("{\"id\":" + document.getId() + ",\"title\":\"" + DEFAULT_TITLE + "\",\"size\":" + DEFAULT_SIZE
+            + ",\"mimeType\":\"" + DEFAULT_MIME_TYPE + "\",\"personId\":" + document.getPerson().getId() + "}");
+    }
+
+    @Test
+    @Transactional
+    public void getAllDocumentsByCursor() throws Exception {
+        // Initialize the database
+        documentRepository.saveAndFlush(document);
+
+        // Get the page following the previous id
+        restDocumentMockMvc.perform(get("/api/documents?cursor={cursor}&size=1", PaginationUtil.encodeCursor(document.getId() - 1)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(document.getId().intValue()))
+            .andExpect(header().string(PaginationUtil.NEXT_CURSOR_HEADER, PaginationUtil.encodeCursor(document.getId())))
+            .andExpect(header().doesNotExist("X-Total-Count"));
+
+        // Get the page following the previous id of the same person
+        restDocumentMockMvc.perform(get("/api/documents?order=person&cursor={cursor}&size=1",
+                PaginationUtil.encodeCursor(document.getPerson().getId(), document.getId() - 1)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(document.getId().intValue()))
+            .andExpect(header().string(PaginationUtil.NEXT_CURSOR_HEADER, PaginationUtil.encodeCursor(document.getPerson().getId(), document.getId())));
+    }
+
+    @Test
+    @Transactional
+    public void getAllDocumentsWithInvalidCursor() throws Exception {
+        restDocumentMockMvc.perform(get("/api/documents?cursor=not-a-cursor"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void getAllDocumentsWithPageSizeAboveMaximum() throws Exception {
+        // Initialize the database
+        documentRepository.saveAndFlush(document);
+
+        // The page size is lowered to the maximum
+        restDocumentMockMvc.perform(get("/api/documents?size=100000"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.LINK, containsString("size=200")));
+    }
+
+    @Test
+    @Transactional
+    public void getAllDocumentsByPersonIsEqualToSomething() throws Exception {
+        // Initialize the database
+        documentRepository.saveAndFlush(document);
+        Long personId = document.getPerson().getId();
+
+        // Get all the documentList where person equals to personId
+        defaultDocumentShouldBeFound("personId.equals=" + personId);
+
+        // Get all the documentList where person equals to personId + 1
+        defaultDocumentShouldNotBeFound("personId.equals=" + (personId + 1));
+    }
+
+    @Test
+    @Transactional
+    public void getAllDocumentsByMimeTypeIsInShouldWork() throws Exception {
+        // Initialize the database
+        documentRepository.saveAndFlush(document);
+
+        // Get all the documentList where mimeType in DEFAULT_MIME_TYPE or UPDATED_MIME_TYPE
+        defaultDocumentShouldBeFound("mimeType.in=" + DEFAULT_MIME_TYPE + "," + UPDATED_MIME_TYPE);
+
+        // Get all the documentList where mimeType equals to UPDATED_MIME_TYPE
+        defaultDocumentShouldNotBeFound("mimeType.in=" + UPDATED_MIME_TYPE);
+    }
+
+    @Test
+    @Transactional
+    public void getAllDocumentsBySizeIsInRange() throws Exception {
+        // Initialize the database
+        documentRepository.saveAndFlush(document);
+
+        // Get all the documentList where size is between DEFAULT_SIZE and UPDATED_SIZE
+        defaultDocumentShouldBeFound("size.greaterOrEqualThan=" + DEFAULT_SIZE + "&size.lessThan=" + UPDATED_SIZE);
+
+        // Get all the documentList where size is greater than or equal to UPDATED_SIZE
+        defaultDocumentShouldNotBeFound("size.greaterOrEqualThan=" + UPDATED_SIZE);
+    }
+
+    @Test
+    @Transactional
+    public void getAllDocumentsByTitleStartsWith() throws Exception {
+        // Initialize the database
+        documentRepository.saveAndFlush(document);
+
+        // Get all the documentList where title starts with a prefix of DEFAULT_TITLE
+        defaultDocumentShouldBeFound("title.startsWith=" + DEFAULT_TITLE.substring(0, 3));
+
+        // Get all the documentList where title starts with UPDATED_TITLE, or with a wildcard, which is matched literally
+        defaultDocumentShouldNotBeFound("title.startsWith=" + UPDATED_TITLE);
+        defaultDocumentShouldNotBeFound("title.startsWith=" + DEFAULT_TITLE.substring(0, 3) + "_");
+    }
+
+    @Test
+    @Transactional
+    public void getAllDocumentsByLastModifiedDateIsGreaterThan() throws Exception {
+        // Initialize the database
+        documentRepository.saveAndFlush(document);
+
+        // Get all the documentList modified after an hour ago
+        defaultDocumentShouldBeFound("lastModifiedDate.greaterThan=" + Instant.now().minusSeconds(3600));
+
+        // Get all the documentList modified after an hour from now
+        defaultDocumentShouldNotBeFound("lastModifiedDate.greaterThan=" + Instant.now().plusSeconds(3600));
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is returned
+     */
+    private void defaultDocumentShouldBeFound(String filter) throws Exception {
+        restDocumentMockMvc.perform(get("/api/documents?sort=id,desc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(document.getId().intValue())))
+            .andExpect(jsonPath("$.[*].title").value(hasItem(DEFAULT_TITLE)))
+            .andExpect(jsonPath("$.[*].size").value(hasItem(DEFAULT_SIZE.intValue())))
+            .andExpect(jsonPath("$.[*].mimeType").value(hasItem(DEFAULT_MIME_TYPE)));
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is not returned
+     */
+    private void defaultDocumentShouldNotBeFound(String filter) throws Exception {
+        restDocumentMockMvc.perform(get("/api/documents?sort=id,desc&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$").isArray())
+            .andExpect(jsonPath("$").isEmpty())
+            .andExpect(header().string("X-Total-Count", "0"));
+    }
     
     @Test
     @Transactional
@@ -230,7 +444,36 @@ public class DocumentResourceIntTest {
             .andExpect(jsonPath("$.id").value(document.getId().intValue()))
             .andExpect(jsonPath("$.title").value(DEFAULT_TITLE.toString()))
             .andExpect(jsonPath("$.size").value(DEFAULT_SIZE.intValue()))
-            .andExpect(jsonPath("$.mimeType").value(DEFAULT_MIME_TYPE.toString()));
+            .andExpect(jsonPath("$.mimeType").value(DEFAULT_MIME_TYPE.toString()))
+            .andExpect(jsonPath("$.version").value(document.getVersion().intValue()))
+            .andExpect(jsonPath("$.person.id").value(document.getPerson().getId().intValue()))
+            .andExpect(jsonPath("$.personId").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    public void getDocumentNotModified() throws Exception {
+        // Initialize the database
+        documentRepository.saveAndFlush(document);
+
+        // Get the document validators
+        String eTag = restDocumentMockMvc.perform(get("/api/documents/{id}", document.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + document.getVersion() + "\""))
+            .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // An up to date client gets no body
+        restDocumentMockMvc.perform(get("/api/documents/{id}", document.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        // A stale client gets the document
+        restDocumentMockMvc.perform(get("/api/documents/{id}", document.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(document.getId().intValue()));
     }
 
     @Test
@@ -241,6 +484,122 @@ public class DocumentResourceIntTest {
             .andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    public void getDocumentContent() throws Exception {
+        // Initialize the database
+        byte[] data = "0123456789".getBytes(StandardCharsets.UTF_8);
+        document.size((long) data.length).mimeType("text/plain")
+            .setContent(new Content().data(data).dataContentType("text/plain").checksum("abc"));
+        documentRepository.saveAndFlush(document);
+
+        // Get the whole content
+        restDocumentMockMvc.perform(get("/api/documents/{id}/$content", document.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("text/plain"))
+            .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"abc\""))
+            .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, data.length))
+            .andExpect(content().bytes(data));
+
+        // The read is recorded
+        em.clear();
+        assertThat(documentRepository.findById(document.getId()).get().getLastAccessedDate()).isNotNull();
+    }
+
+    @Test
+    @Transactional
+    public void getDocumentContentWithEditedSize() throws Exception {
+        // Initialize the database, with a document size which does not match its content
+        byte[] data = "0123456789".getBytes(StandardCharsets.UTF_8);
+        document.size(1000L).mimeType("text/plain")
+            .setContent(new Content().data(data).dataContentType("text/plain").checksum("abc"));
+        documentRepository.saveAndFlush(document);
+
+        // The length is the one of the content
+        restDocumentMockMvc.perform(get("/api/documents/{id}/$content", document.getId())
+            .header(HttpHeaders.RANGE, "bytes=5-"))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 5-9/10"))
+            .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 5))
+            .andExpect(content().string("56789"));
+    }
+
+    @Test
+    @Transactional
+    public void getDocumentContentNotModified() throws Exception {
+        // Initialize the database
+        byte[] data = "0123456789".getBytes(StandardCharsets.UTF_8);
+        document.size((long) data.length).mimeType("text/plain")
+            .setContent(new Content().data(data).dataContentType("text/plain").checksum("abc"));
+        documentRepository.saveAndFlush(document);
+        em.clear();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        // An up to date client gets no content
+        restDocumentMockMvc.perform(get("/api/documents/{id}/$content", document.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, "\"abc\""))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"abc\""))
+            .andExpect(content().bytes(new byte[0]));
+
+        // Validate the validators were checked without loading the content
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    @Transactional
+    public void getDocumentThumbnail() throws Exception {
+        // Initialize the database
+        byte[] data = "0123456789".getBytes(StandardCharsets.UTF_8);
+        byte[] thumbnail = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 0};
+        document.setContent(new Content().data(data).dataContentType("image/jpeg").checksum("abc"));
+        documentRepository.saveAndFlush(document);
+        thumbnailRepository.saveAndFlush(new Thumbnail().contentId(document.getContent().getId()).data(thumbnail)
+            .mimeType("image/jpeg").width(1).height(1).createdDate(Instant.now()));
+
+        // Get the thumbnail
+        restDocumentMockMvc.perform(get("/api/documents/{id}/$thumbnail", document.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("image/jpeg"))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age=31536000")))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"thumbnail-abc\""))
+            .andExpect(content().bytes(thumbnail));
+    }
+
+    @Test
+    @Transactional
+    public void getDocumentContentRange() throws Exception {
+        // Initialize the database
+        byte[] data = "0123456789".getBytes(StandardCharsets.UTF_8);
+        document.size((long) data.length).mimeType("text/plain")
+            .setContent(new Content().data(data).dataContentType("text/plain").checksum("abc"));
+        documentRepository.saveAndFlush(document);
+
+        // Get a range of the content
+        restDocumentMockMvc.perform(get("/api/documents/{id}/$content", document.getId())
+            .header(HttpHeaders.RANGE, "bytes=2-5"))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+            .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 4))
+            .andExpect(content().string("2345"));
+
+        // A stale If-Range gets the whole content
+        restDocumentMockMvc.perform(get("/api/documents/{id}/$content", document.getId())
+            .header(HttpHeaders.RANGE, "bytes=2-5")
+            .header(HttpHeaders.IF_RANGE, "\"stale\""))
+            .andExpect(status().isOk())
+            .andExpect(content().bytes(data));
+
+        // A range past the end cannot be satisfied
+        restDocumentMockMvc.perform(get("/api/documents/{id}/$content", document.getId())
+            .header(HttpHeaders.RANGE, "bytes=20-"))
+            .andExpect(status().isRequestedRangeNotSatisfiable())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+    }
+
     @Test
     @Transactional
     public void updateDocument() throws Exception {
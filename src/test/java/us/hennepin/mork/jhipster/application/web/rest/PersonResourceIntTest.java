@@ -2,11 +2,22 @@ package us.hennepin.mork.jhipster.application.web.rest;
 
 import us.hennepin.mork.jhipster.application.JhipsterDocumentApplicationApp;
 
+import us.hennepin.mork.jhipster.application.domain.Content;
+import us.hennepin.mork.jhipster.application.domain.Document;
 import us.hennepin.mork.jhipster.application.domain.Person;
 import us.hennepin.mork.jhipster.application.repository.PersonRepository;
 import us.hennepin.mork.jhipster.application.repository.search.PersonSearchRepository;
+import us.hennepin.mork.jhipster.application.service.ContentService;
+import us.hennepin.mork.jhipster.application.service.DocumentArchiveService;
+import us.hennepin.mork.jhipster.application.service.DocumentIndexService;
+import us.hennepin.mork.jhipster.application.service.PersonSummaryService;
+import us.hennepin.mork.jhipster.application.service.mapper.DocumentMapper;
 import us.hennepin.mork.jhipster.application.web.rest.errors.ExceptionTranslator;
+import us.hennepin.mork.jhipster.application.web.rest.util.PaginationUtil;
 
+import org.apache.commons.io.IOUtils;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -23,8 +34,15 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.Validator;
 
 import javax.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 
 import static us.hennepin.mork.jhipster.application.web.rest.TestUtil.createFormattingConversionService;
@@ -52,6 +70,18 @@ public class PersonResourceIntTest {
 
     @Autowired
     private DocumentMapper documentMapper;
+
+    @Autowired
+    private ContentService contentService;
+
+    @Autowired
+    private DocumentArchiveService documentArchiveService;
+
+    @Autowired
+    private PersonSummaryService personSummaryService;
+
+    @Autowired
+    private DocumentIndexService documentIndexService;
     
     /**
      * This repository is mocked in the us.hennepin.mork.jhipster.application.repository.search test package.
@@ -83,7 +113,8 @@ public class PersonResourceIntTest {
     @Before
     public void setup() {
         MockitoAnnotations.initMocks(this);
-        final PersonResource personResource = new PersonResource(personRepository, documentMapper);
+        final PersonResource personResource = new PersonResource(personRepository, mockPersonSearchRepository, documentMapper, contentService,
+            documentArchiveService, personSummaryService, documentIndexService);
         this.restPersonMockMvc = MockMvcBuilders.standaloneSetup(personResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setControllerAdvice(exceptionTranslator)
@@ -180,10 +211,25 @@ public class PersonResourceIntTest {
         restPersonMockMvc.perform(get("/api/people?sort=id,desc"))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(header().exists("X-Total-Count"))
             .andExpect(jsonPath("$.[*].id").value(hasItem(person.getId().intValue())))
             .andExpect(jsonPath("$.[*].model").value(hasItem(DEFAULT_MODEL.toString())));
     }
     
+    @Test
+    @Transactional
+    public void getAllPeopleByCursor() throws Exception {
+        // Initialize the database
+        personRepository.saveAndFlush(person);
+
+        // Get the page following the previous id
+        restPersonMockMvc.perform(get("/api/people?cursor={cursor}&size=1", PaginationUtil.encodeCursor(person.getId() - 1)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(person.getId().intValue()))
+            .andExpect(header().string(PaginationUtil.NEXT_CURSOR_HEADER, PaginationUtil.encodeCursor(person.getId())));
+    }
+
     @Test
     @Transactional
     public void getPerson() throws Exception {
@@ -198,6 +244,179 @@ public class PersonResourceIntTest {
             .andExpect(jsonPath("$.model").value(DEFAULT_MODEL.toString()));
     }
 
+    @Test
+    @Transactional
+    public void getAllPeopleWithoutDocuments() throws Exception {
+        // Initialize the database
+        createPersonWithDocuments(2);
+        Statistics statistics = statistics();
+
+        // Get the last person, with a count query as the page is full
+        restPersonMockMvc.perform(get("/api/people?sort=id,desc&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(person.getId().intValue()))
+            .andExpect(jsonPath("$.[0].documents").doesNotExist());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @Transactional
+    public void getAllPeopleWithDocuments() throws Exception {
+        // Initialize the database
+        createPersonWithDocuments(2);
+        Statistics statistics = statistics();
+
+        // Get the last person, the documents being fetched by one more query
+        restPersonMockMvc.perform(get("/api/people?sort=id,desc&size=1&include=documents"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(person.getId().intValue()))
+            .andExpect(jsonPath("$.[0].documents.length()").value(2));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    @Transactional
+    public void getAllPeopleByCursorWithDocuments() throws Exception {
+        // Initialize the database
+        createPersonWithDocuments(2);
+        Statistics statistics = statistics();
+
+        // Get the page following the previous id
+        restPersonMockMvc.perform(get("/api/people?cursor={cursor}&size=1&include=documents", PaginationUtil.encodeCursor(person.getId() - 1)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(person.getId().intValue()))
+            .andExpect(jsonPath("$.[0].documents.length()").value(2));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @Transactional
+    public void getPersonWithoutDocuments() throws Exception {
+        // Initialize the database
+        createPersonWithDocuments(2);
+        Statistics statistics = statistics();
+
+        // Get the person
+        restPersonMockMvc.perform(get("/api/people/{id}", person.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(person.getId().intValue()))
+            .andExpect(jsonPath("$.documents").doesNotExist());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @Transactional
+    public void getPersonWithDocuments() throws Exception {
+        // Initialize the database
+        createPersonWithDocuments(2);
+        Statistics statistics = statistics();
+
+        // Get the person and the documents in a single query
+        restPersonMockMvc.perform(get("/api/people/{id}?include=documents", person.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(person.getId().intValue()))
+            .andExpect(jsonPath("$.documents.length()").value(2))
+            .andExpect(jsonPath("$.documents.[*].title").value(hasItem("document-1")));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @Transactional
+    public void getPersonWithInvalidInclude() throws Exception {
+        // Initialize the database
+        personRepository.saveAndFlush(person);
+
+        restPersonMockMvc.perform(get("/api/people/{id}?include=contents", person.getId()))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void getAllPersonSummaries() throws Exception {
+        // Initialize the database
+        personRepository.saveAndFlush(person);
+        Document document = new Document().title("document-1").size(42L).mimeType("text/plain");
+        person.addDocument(document);
+        em.persist(document);
+        personSummaryService.documentCreated(document);
+        em.flush();
+
+        // Get the summaries, without the documents
+        restPersonMockMvc.perform(get("/api/people/summaries?sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("X-Total-Count"))
+            .andExpect(jsonPath("$.[0].id").value(person.getId().intValue()))
+            .andExpect(jsonPath("$.[0].model").value(DEFAULT_MODEL))
+            .andExpect(jsonPath("$.[0].documentCount").value(1))
+            .andExpect(jsonPath("$.[0].documentSize").value(42))
+            .andExpect(jsonPath("$.[0].lastUploadDate").isNotEmpty())
+            .andExpect(jsonPath("$.[0].documents").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    public void getPersonSummary() throws Exception {
+        // Initialize the database
+        personRepository.saveAndFlush(person);
+
+        // Get the summary of a person without documents
+        restPersonMockMvc.perform(get("/api/people/{id}/summary", person.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(person.getId().intValue()))
+            .andExpect(jsonPath("$.documentCount").value(0))
+            .andExpect(jsonPath("$.documentSize").value(0))
+            .andExpect(jsonPath("$.lastUploadDate").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    public void getNonExistingPersonSummary() throws Exception {
+        restPersonMockMvc.perform(get("/api/people/{id}/summary", Long.MAX_VALUE))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    public void getPersonDocumentsZip() throws Exception {
+        // Initialize the database
+        personRepository.saveAndFlush(person);
+        byte[] text = "hello world".getBytes(StandardCharsets.UTF_8);
+        byte[] image = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 0, 1, 2};
+        for (byte[] data : Arrays.asList(text, image)) {
+            // the size of the text document is edited, the entry has the size of the content
+            Document document = new Document().title("scan.dat").size(data == image ? (long) data.length : 1000L)
+                .mimeType(data == image ? "image/jpeg" : "text/plain")
+                .content(new Content().data(data).dataContentType("application/octet-stream").size((long) data.length));
+            person.addDocument(document);
+            em.persist(document);
+        }
+        em.flush();
+
+        // Get the documents as a ZIP archive
+        byte[] zip = restPersonMockMvc.perform(get("/api/people/{id}/documents.zip", person.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/zip"))
+            .andReturn().getResponse().getContentAsByteArray();
+
+        Map<String, byte[]> entries = new HashMap<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                entries.put(entry.getName(), IOUtils.toByteArray(in));
+            }
+        }
+        assertThat(entries).containsOnlyKeys("scan.dat", "scan (2).dat");
+        assertThat(entries.get("scan.dat")).isEqualTo(text);
+        assertThat(entries.get("scan (2).dat")).isEqualTo(image);
+    }
+
+    @Test
+    @Transactional
+    public void getNonExistingPersonDocumentsZip() throws Exception {
+        restPersonMockMvc.perform(get("/api/people/{id}/documents.zip", Long.MAX_VALUE))
+            .andExpect(status().isNotFound());
+    }
+
     @Test
     @Transactional
     public void getNonExistingPerson() throws Exception {
@@ -293,6 +512,31 @@ public class PersonResourceIntTest {
             .andExpect(jsonPath("$.[*].model").value(hasItem(DEFAULT_MODEL)));
     }
 
+    /**
+     * Save the person with the given number of documents, and clear the persistence context so that nothing is
+     * loaded yet.
+     */
+    private void createPersonWithDocuments(int count) {
+        personRepository.saveAndFlush(person);
+        for (int i = 1; i <= count; i++) {
+            Document document = new Document().title("document-" + i).size(1L).mimeType("text/plain");
+            person.addDocument(document);
+            em.persist(document);
+        }
+        em.flush();
+        em.clear();
+    }
+
+    /**
+     * Get the Hibernate statistics, enabled and reset to count the statements of a request.
+     */
+    private Statistics statistics() {
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        return statistics;
+    }
+
     @Test
     @Transactional
     public void equalsVerifier() throws Exception {
@@ -0,0 +1,183 @@
+package us.hennepin.mork.jhipster.application.web.rest;
+
+import us.hennepin.mork.jhipster.application.JhipsterDocumentApplicationApp;
+
+import us.hennepin.mork.jhipster.application.domain.Document;
+import us.hennepin.mork.jhipster.application.domain.Person;
+import us.hennepin.mork.jhipster.application.domain.UploadSession;
+import us.hennepin.mork.jhipster.application.repository.DocumentRepository;
+import us.hennepin.mork.jhipster.application.repository.UploadSessionRepository;
+import us.hennepin.mork.jhipster.application.service.UploadService;
+import us.hennepin.mork.jhipster.application.web.rest.errors.ExceptionTranslator;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.Validator;
+
+import javax.persistence.EntityManager;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static us.hennepin.mork.jhipster.application.web.rest.TestUtil.createFormattingConversionService;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Test class for the UploadResource REST controller.
+ *
+ * @see UploadResource
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = JhipsterDocumentApplicationApp.class)
+public class UploadResourceIntTest {
+
+    private static final byte[] DATA = "hello world".getBytes(StandardCharsets.UTF_8);
+
+    private static final String DATA_SHA_256 = "b94d27b9934d3e08a52e52d7da7dabfac484efe37a5380ee9088f7ace2efcde9";
+
+    @Autowired
+    private UploadService uploadService;
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private MappingJackson2HttpMessageConverter jacksonMessageConverter;
+
+    @Autowired
+    private ExceptionTranslator exceptionTranslator;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private Validator validator;
+
+    private MockMvc restUploadMockMvc;
+
+    private UploadSession uploadSession;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        final UploadResource uploadResource = new UploadResource(uploadService);
+        this.restUploadMockMvc = MockMvcBuilders.standaloneSetup(uploadResource)
+            .setControllerAdvice(exceptionTranslator)
+            .setConversionService(createFormattingConversionService())
+            .setMessageConverters(jacksonMessageConverter)
+            .setValidator(validator).build();
+    }
+
+    @Before
+    public void initTest() {
+        Person person = PersonResourceIntTest.createEntity(em);
+        em.persist(person);
+        em.flush();
+        uploadSession = new UploadSession()
+            .title("hello.txt")
+            .mimeType("text/plain")
+            .size((long) DATA.length)
+            .checksum(DATA_SHA_256)
+            .person(person);
+    }
+
+    @Test
+    @Transactional
+    public void resumeAndCompleteUpload() throws Exception {
+        int databaseSizeBeforeCreate = documentRepository.findAll().size();
+        UploadSession started = uploadService.create(uploadSession);
+
+        // Write the first chunk
+        restUploadMockMvc.perform(put("/api/uploads/{id}", started.getId())
+            .header(UploadResource.UPLOAD_OFFSET, 0)
+            .content("hello"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(UploadResource.UPLOAD_OFFSET, "5"));
+
+        // A chunk sent at the wrong offset is rejected
+        restUploadMockMvc.perform(put("/api/uploads/{id}", started.getId())
+            .header(UploadResource.UPLOAD_OFFSET, 0)
+            .content("hello"))
+            .andExpect(status().isConflict());
+
+        // The offset to resume from can be queried
+        restUploadMockMvc.perform(get("/api/uploads/{id}", started.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(UploadResource.UPLOAD_OFFSET, "5"))
+            .andExpect(jsonPath("$.received").value(5));
+
+        // An incomplete upload cannot be completed
+        restUploadMockMvc.perform(post("/api/uploads/{id}/$complete", started.getId()))
+            .andExpect(status().isBadRequest());
+
+        // Write the rest
+        restUploadMockMvc.perform(put("/api/uploads/{id}", started.getId())
+            .header(UploadResource.UPLOAD_OFFSET, 5)
+            .content(" world"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(UploadResource.UPLOAD_OFFSET, "11"));
+
+        restUploadMockMvc.perform(post("/api/uploads/{id}/$complete", started.getId()))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.title").value("hello.txt"))
+            .andExpect(jsonPath("$.size").value(DATA.length));
+
+        List<Document> documentList = documentRepository.findAll();
+        assertThat(documentList).hasSize(databaseSizeBeforeCreate + 1);
+        assertThat(documentList.get(documentList.size() - 1).getContent().getChecksum()).isEqualTo(DATA_SHA_256);
+        assertThat(uploadSessionRepository.existsById(started.getId())).isFalse();
+    }
+
+    @Test
+    @Transactional
+    public void completeUploadWithDetectedMimeType() throws Exception {
+        byte[] pdf = "%PDF-1.4".getBytes(StandardCharsets.UTF_8);
+        UploadSession started = uploadService.create(uploadSession
+            .mimeType(MediaType.APPLICATION_OCTET_STREAM_VALUE)
+            .size((long) pdf.length)
+            .checksum(null));
+        restUploadMockMvc.perform(put("/api/uploads/{id}", started.getId())
+            .header(UploadResource.UPLOAD_OFFSET, 0)
+            .content(pdf))
+            .andExpect(status().isOk());
+
+        // The document gets the type detected for its content, not the declared one
+        restUploadMockMvc.perform(post("/api/uploads/{id}/$complete", started.getId()))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.mimeType").value(MediaType.APPLICATION_PDF_VALUE));
+    }
+
+    @Test
+    @Transactional
+    public void completeUploadWithWrongChecksum() throws Exception {
+        UploadSession started = uploadService.create(uploadSession.checksum(DATA_SHA_256.replace('b', 'c')));
+        restUploadMockMvc.perform(put("/api/uploads/{id}", started.getId())
+            .header(UploadResource.UPLOAD_OFFSET, 0)
+            .content(DATA))
+            .andExpect(status().isOk());
+
+        restUploadMockMvc.perform(post("/api/uploads/{id}/$complete", started.getId()))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void getNonExistingUpload() throws Exception {
+        restUploadMockMvc.perform(get("/api/uploads/{id}", Long.MAX_VALUE))
+            .andExpect(status().isNotFound());
+    }
+}
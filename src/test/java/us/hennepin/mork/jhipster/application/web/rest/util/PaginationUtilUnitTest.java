@@ -1,5 +1,6 @@
 package us.hennepin.mork.jhipster.application.web.rest.util;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
@@ -155,4 +156,26 @@ public class PaginationUtilUnitTest {
         assertTrue(xTotalCountHeaders.size() == 1);
         assertTrue(Long.valueOf(xTotalCountHeaders.get(0)).equals(0L));
     }
+
+    @Test
+    public void generateCursorHttpHeadersTest() {
+        String cursor = PaginationUtil.encodeCursor(12L, 345L);
+        HttpHeaders headers = PaginationUtil.generateCursorHttpHeaders(cursor, "/api/documents?order=person", 50);
+        assertEquals(cursor, headers.getFirst(PaginationUtil.NEXT_CURSOR_HEADER));
+        assertEquals("</api/documents?order=person&cursor=" + cursor + "&size=50>; rel=\"next\"", headers.getFirst(HttpHeaders.LINK));
+
+        HttpHeaders lastPageHeaders = PaginationUtil.generateCursorHttpHeaders(null, "/api/documents", 50);
+        assertTrue(lastPageHeaders.isEmpty());
+    }
+
+    @Test
+    public void cursorRoundTripTest() {
+        assertArrayEquals(new long[] {12L, 345L}, PaginationUtil.decodeCursor(PaginationUtil.encodeCursor(12L, 345L), 2));
+        assertArrayEquals(new long[] {0L}, PaginationUtil.decodeCursor("", 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidCursorTest() {
+        PaginationUtil.decodeCursor(PaginationUtil.encodeCursor(12L, 345L), 1);
+    }
 }
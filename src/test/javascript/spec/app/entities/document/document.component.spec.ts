@@ -7,6 +7,7 @@ import { JhipsterDocumentApplicationTestModule } from '../../../test.module';
 import { DocumentComponent } from 'app/entities/document/document.component';
 import { DocumentService } from 'app/entities/document/document.service';
 import { Document } from 'app/shared/model/document.model';
+import { ITEMS_PER_PAGE } from 'app/shared/constants/pagination.constants';
 
 describe('Component Tests', () => {
     describe('Document Management Component', () => {
@@ -47,5 +48,68 @@ describe('Component Tests', () => {
             expect(service.query).toHaveBeenCalled();
             expect(comp.documents[0]).toEqual(jasmine.objectContaining({ id: 123 }));
         });
+
+        // the person and content lists are paged by the same code, this covers the three of them
+        it('should query the page picked by the user', () => {
+            // GIVEN
+            const headers = new HttpHeaders()
+                .append('link', '<http://localhost/api/documents?page=0&size=20>; rel="first"')
+                .append('X-Total-Count', '42');
+            spyOn(service, 'query').and.returnValue(
+                of(
+                    new HttpResponse({
+                        body: [new Document(123)],
+                        headers
+                    })
+                )
+            );
+
+            // WHEN
+            comp.page = 2;
+            comp.loadPage(2);
+
+            // THEN
+            expect(service.query).toHaveBeenCalledWith({ page: 1, size: ITEMS_PER_PAGE, sort: ['id,desc'] });
+            expect(comp.totalItems).toEqual(42);
+            expect(comp.links.first).toEqual(0);
+            expect(comp.documents[0]).toEqual(jasmine.objectContaining({ id: 123 }));
+        });
+
+        it('should not query the page already shown', () => {
+            // GIVEN
+            spyOn(service, 'query');
+
+            // WHEN
+            comp.loadPage(comp.previousPage);
+
+            // THEN
+            expect(service.query).not.toHaveBeenCalled();
+        });
+
+        it('should break ties on the id when sorting on another column', () => {
+            // GIVEN
+            comp.predicate = 'title';
+            comp.reverse = true;
+
+            // WHEN
+            const result = comp.sort();
+
+            // THEN
+            expect(result).toEqual(['title,asc', 'id']);
+        });
+
+        it('should search without paging', () => {
+            // GIVEN
+            spyOn(service, 'query');
+            spyOn(service, 'search').and.returnValue(of(new HttpResponse({ body: [new Document(123)] })));
+
+            // WHEN
+            comp.search('report');
+
+            // THEN
+            expect(service.query).not.toHaveBeenCalled();
+            expect(service.search).toHaveBeenCalledWith({ query: 'report' });
+            expect(comp.documents[0]).toEqual(jasmine.objectContaining({ id: 123 }));
+        });
     });
 });